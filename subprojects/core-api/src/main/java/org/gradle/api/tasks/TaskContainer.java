@@ -187,4 +187,22 @@ public interface TaskContainer extends TaskCollection<Task>, PolymorphicDomainOb
      * @return The newly created task object
      */
     <T extends Task> T replace(String name, Class<T> type);
+
+    /**
+     * <p>Defines a {@link Task} with the given name and type, without creating it. The task is created, added to this container
+     * and configured using the given action only when it is required. This happens when the task is looked up by name or path,
+     * is scheduled to run, or when a {@link #withType(Class)} collection containing it is used as a task dependency.</p>
+     *
+     * <p>Actions registered using {@link #all(Action)} or {@link #whenTaskAdded(Action)}, including those registered on a
+     * {@link #withType(Class)} collection, do not cause the task to be created. They are applied to the task when it is created,
+     * after the given configuration action.</p>
+     *
+     * @param name The name of the task.
+     * @param type The type of task to create.
+     * @param configuration The action to configure the task with.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @since 4.4
+     */
+    @Incubating
+    <T extends Task> void createLater(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class DeferredTaskCreationIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        buildFile << """
+            class SomeTask extends DefaultTask {
+                String message
+
+                @TaskAction
+                void run() {
+                    println "run \${path}: \${message}"
+                }
+            }
+
+            tasks.whenTaskAdded { println "added \${it.path}" }
+
+            tasks.createLater("task1", SomeTask) {
+                println "configure \${path}"
+                message = "from configuration"
+            }
+            tasks.createLater("task2", DefaultTask) {
+                println "configure \${path}"
+            }
+        """
+    }
+
+    def "does not create task until it is required"() {
+        when:
+        succeeds "help"
+
+        then:
+        !output.contains("configure :task1")
+        !output.contains("added :task1")
+        !output.contains("configure :task2")
+    }
+
+    def "creates and configures task once when it is scheduled to run"() {
+        when:
+        succeeds "task1"
+
+        then:
+        result.assertTasksExecuted(":task1")
+        output.count("configure :task1") == 1
+        output.count("added :task1") == 1
+        outputContains("run :task1: from configuration")
+        !output.contains("configure :task2")
+    }
+
+    def "creates and configures task once when it is looked up by name"() {
+        buildFile << """
+            def first = tasks.findByName("task1")
+            def second = tasks.findByName("task1")
+            assert first.is(second)
+            assert first instanceof SomeTask
+            assert first.message == "from configuration"
+            assert tasks.getByPath(":task1").is(first)
+        """
+
+        when:
+        succeeds "task1"
+
+        then:
+        output.count("configure :task1") == 1
+        output.count("added :task1") == 1
+        outputContains("run :task1: from configuration")
+        !output.contains("configure :task2")
+    }
+
+    def "applies actions registered using withType().all() once when task is created"() {
+        buildFile << """
+            tasks.withType(SomeTask).all {
+                println "all \${it.path}"
+                it.message = "from withType"
+            }
+            tasks.all { println "all tasks \${it.path}" }
+            println "after withType"
+        """
+
+        when:
+        succeeds "task1"
+
+        then:
+        output.count("configure :task1") == 1
+        output.count("added :task1") == 1
+        output.count("all :task1") == 1
+        output.count("all tasks :task1") == 1
+        output.indexOf("after withType") < output.indexOf("configure :task1")
+        output.indexOf("configure :task1") < output.indexOf("all :task1")
+        outputContains("run :task1: from withType")
+        !output.contains("configure :task2")
+    }
+
+    def "does not create task when actions are registered using all()"() {
+        buildFile << """
+            tasks.withType(SomeTask).all { println "all \${it.path}" }
+            tasks.all { println "all tasks \${it.path}" }
+        """
+
+        when:
+        succeeds "help"
+
+        then:
+        !output.contains("configure :task1")
+        !output.contains("all :task1")
+        !output.contains("configure :task2")
+    }
+
+    def "creates and configures task once when withType() collection is used as a task dependency"() {
+        buildFile << """
+            task dependent {
+                dependsOn tasks.withType(SomeTask)
+            }
+        """
+
+        when:
+        succeeds "dependent"
+
+        then:
+        result.assertTasksExecuted(":task1", ":dependent")
+        output.count("configure :task1") == 1
+        output.count("added :task1") == 1
+        !output.contains("configure :task2")
+    }
+
+    def "fails when a task with the same name already exists"() {
+        buildFile << """
+            task task3
+            tasks.createLater("task3", DefaultTask) { }
+        """
+
+        when:
+        fails "help"
+
+        then:
+        failure.assertHasCause("Cannot add task 'task3' as a task with that name already exists.")
+    }
+
+    def "validates task name when task is defined"() {
+        buildFile << """
+            tasks.createLater("this/is/a/hierarchy", DefaultTask) { }
+        """
+        executer.expectDeprecationWarning()
+
+        when:
+        succeeds "help"
+
+        then:
+        outputContains("The task name 'this/is/a/hierarchy' contains at least one of the following characters")
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal;
 
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.io.ByteStreams;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
 import org.apache.commons.collections.map.AbstractReferenceMap;
@@ -27,6 +28,9 @@ import org.gradle.api.GradleException;
 import org.gradle.api.NonExtensible;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.provider.Property;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.reflect.ClassDetails;
 import org.gradle.internal.reflect.ClassInspector;
 import org.gradle.internal.reflect.DirectInstantiator;
@@ -36,6 +40,8 @@ import org.gradle.internal.service.ServiceRegistry;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -66,8 +72,13 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public abstract class AbstractClassGenerator implements ClassGenerator {
     private static final Map<Class<?>, Map<Class<?>, Class<?>>> GENERATED_CLASSES = new HashMap<Class<?>, Map<Class<?>, Class<?>>>();
+    private static final Map<Class<?>, HashCode> CLASS_HASHES = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.HARD);
     private static final Lock CACHE_LOCK = new ReentrantLock();
     private static final Collection<String> SKIP_PROPERTIES = Arrays.asList("class", "metaClass", "conventionMapping", "convention", "asDynamicObject", "extensions");
+    // Increment this when the structure of the generated classes changes, to invalidate persisted classes
+    private static final int BYTECODE_CACHE_VERSION = 1;
+
+    private GeneratedClassBytecodeCache bytecodeCache;
 
     public <T> T newInstance(Class<T> type, Object... parameters) {
         return DirectInstantiator.instantiate(generate(type), parameters);
@@ -82,6 +93,32 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         }
     }
 
+    /**
+     * Uses the given cache to persist the generated classes, so that they can be reused by other processes.
+     */
+    public void setBytecodeCache(GeneratedClassBytecodeCache bytecodeCache) {
+        try {
+            CACHE_LOCK.lock();
+            this.bytecodeCache = bytecodeCache;
+        } finally {
+            CACHE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Stops using the given cache, if it is currently in use.
+     */
+    public void removeBytecodeCache(GeneratedClassBytecodeCache bytecodeCache) {
+        try {
+            CACHE_LOCK.lock();
+            if (this.bytecodeCache == bytecodeCache) {
+                this.bytecodeCache = null;
+            }
+        } finally {
+            CACHE_LOCK.unlock();
+        }
+    }
+
     private <T> Class<? extends T> generateUnderLock(Class<T> type) {
         Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
         if (cache == null) {
@@ -109,6 +146,14 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         try {
             ClassMetaData classMetaData = inspectType(type);
 
+            HashCode cacheKey = bytecodeCache == null ? null : cacheKey(type, classMetaData);
+            subclass = cacheKey == null ? null : defineFromCache(type, cacheKey);
+            if (subclass != null) {
+                cache.put(type, subclass);
+                cache.put(subclass, subclass);
+                return subclass;
+            }
+
             ClassBuilder<T> builder = start(type, classMetaData);
 
             builder.startClass(classMetaData.isShouldImplementWithServiceRegistry());
@@ -219,6 +264,9 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
             }
 
             subclass = builder.generate();
+            if (cacheKey != null) {
+                bytecodeCache.put(cacheKey, builder.getBytecode());
+            }
         } catch (Throwable e) {
             throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
         }
@@ -228,8 +276,110 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         return subclass;
     }
 
+    @Nullable
+    private <T> Class<? extends T> defineFromCache(Class<T> type, HashCode cacheKey) {
+        byte[] bytecode = bytecodeCache.get(cacheKey);
+        if (bytecode == null) {
+            return null;
+        }
+        try {
+            return define(type, bytecode);
+        } catch (LinkageError e) {
+            // Unusable entry, generate the class again
+            return null;
+        }
+    }
+
+    /**
+     * Calculates a key for the class generated for the given type, or returns null when the type's hierarchy cannot be fingerprinted.
+     * The generated class is fully determined by the bytecode of the type and its supertypes and by the kinds of its properties.
+     */
+    @Nullable
+    private HashCode cacheKey(Class<?> type, ClassMetaData classMetaData) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(getClass().getName());
+        hasher.putInt(BYTECODE_CACHE_VERSION);
+        if (!hashHierarchy(type, hasher, new HashSet<Class<?>>())) {
+            return null;
+        }
+        for (PropertyMetaData property : classMetaData.properties.values()) {
+            hasher.putString(property.name);
+            if (!property.getters.isEmpty() || !property.setters.isEmpty()) {
+                Class<?> propertyType = property.getType();
+                hasher.putString(propertyType.getName());
+                hasher.putBoolean(Property.class.isAssignableFrom(propertyType));
+                hasher.putBoolean(Iterable.class.isAssignableFrom(propertyType));
+            }
+        }
+        return hasher.hash();
+    }
+
+    private static boolean hashHierarchy(Class<?> type, Hasher hasher, Set<Class<?>> visited) {
+        if (!visited.add(type)) {
+            return true;
+        }
+        HashCode classHash = classHash(type);
+        if (classHash == null) {
+            return false;
+        }
+        hasher.putString(type.getName());
+        hasher.putHash(classHash);
+        if (type.getSuperclass() != null && !hashHierarchy(type.getSuperclass(), hasher, visited)) {
+            return false;
+        }
+        for (Class<?> superInterface : type.getInterfaces()) {
+            if (!hashHierarchy(superInterface, hasher, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static HashCode classHash(Class<?> type) {
+        HashCode hash = CLASS_HASHES.get(type);
+        if (hash != null) {
+            return hash;
+        }
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            // A JVM class, which does not change for a given JVM
+            hash = Hashing.md5().hashString(System.getProperty("java.vm.version") + ":" + type.getName());
+        } else {
+            byte[] bytecode = bytecode(type);
+            if (bytecode == null) {
+                return null;
+            }
+            hash = Hashing.md5().hashBytes(bytecode);
+        }
+        CLASS_HASHES.put(type, hash);
+        return hash;
+    }
+
+    @Nullable
+    private static byte[] bytecode(Class<?> type) {
+        InputStream inputStream = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (inputStream == null) {
+            return null;
+        }
+        try {
+            try {
+                return ByteStreams.toByteArray(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
+    /**
+     * Defines the class with the given bytecode, previously generated for the given type.
+     */
+    protected abstract <T> Class<? extends T> define(Class<T> type, byte[] bytecode);
+
     private ClassMetaData inspectType(Class<?> type) {
         boolean isConventionAware = type.getAnnotation(NoConventionMapping.class) == null;
         boolean extensible = JavaReflectionUtil.getAnnotation(type, NonExtensible.class) == null;
@@ -472,5 +622,10 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         void generateServiceRegistrySupportMethods() throws Exception;
 
         Class<? extends T> generate() throws Exception;
+
+        /**
+         * Returns the bytecode of the generated class. Called after {@link #generate()}.
+         */
+        byte[] getBytecode();
     }
 }
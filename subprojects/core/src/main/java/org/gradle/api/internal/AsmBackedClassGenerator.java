@@ -29,6 +29,7 @@ import org.gradle.api.internal.provider.PropertyInternal;
 import org.gradle.api.plugins.Convention;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
 import org.gradle.internal.metaobject.AbstractDynamicObject;
 import org.gradle.internal.metaobject.BeanDynamicObject;
 import org.gradle.internal.metaobject.DynamicObject;
@@ -63,11 +64,19 @@ import static org.objectweb.asm.Opcodes.*;
 import static org.objectweb.asm.Type.VOID_TYPE;
 
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
+    private static final String GENERATED_CLASS_SUFFIX = "_Decorated";
+
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData) {
         return new ClassBuilderImpl<T>(type, classMetaData);
     }
 
+    @Override
+    protected <T> Class<? extends T> define(Class<T> type, byte[] bytecode) {
+        Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), type.getName() + GENERATED_CLASS_SUFFIX, bytecode);
+        return generatedClass.asSubclass(type);
+    }
+
     private static class ClassBuilderImpl<T> implements ClassBuilder<T> {
         public static final int PV_FINAL_STATIC = Opcodes.ACC_PRIVATE | ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC;
         private static final Set<? extends Class<?>> PRIMITIVE_TYPES = ImmutableSet.of(Byte.TYPE, Boolean.TYPE, Character.TYPE, Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE);
@@ -131,6 +140,7 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private final Type superclassType;
         private final Map<java.lang.reflect.Type, ReturnTypeEntry> genericReturnTypeConstantsIndex = Maps.newHashMap();
         private final AsmClassGenerator classGenerator;
+        private byte[] bytecode;
         private boolean hasMappingField;
         private final boolean conventionAware;
         private final boolean extensible;
@@ -139,7 +149,7 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData) {
             this.type = type;
 
-            classGenerator = new AsmClassGenerator(type, "_Decorated");
+            classGenerator = new AsmClassGenerator(type, GENERATED_CLASS_SUFFIX);
             visitor = classGenerator.getVisitor();
             generatedType = classGenerator.getGeneratedType();
             superclassType = Type.getType(type);
@@ -964,7 +974,13 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             writeGenericReturnTypeFields();
             visitor.visitEnd();
 
-            return classGenerator.define().asSubclass(type);
+            bytecode = visitor.toByteArray();
+            Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), classGenerator.getGeneratedTypeName(), bytecode);
+            return generatedClass.asSubclass(type);
+        }
+
+        public byte[] getBytecode() {
+            return bytecode;
         }
 
         private void writeGenericReturnTypeFields() {
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal;
+
+import com.google.common.io.Files;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link GeneratedClassBytecodeCache} that stores each class in a file named after its key. Entries are written to a temporary file
+ * and then moved into place, so that readers never see a partially written class and no locking is required: processes that generate
+ * the same class concurrently write the same content.
+ */
+public class DefaultGeneratedClassBytecodeCache implements GeneratedClassBytecodeCache, Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultGeneratedClassBytecodeCache.class);
+
+    private final File baseDir;
+    private final AbstractClassGenerator classGenerator;
+
+    public DefaultGeneratedClassBytecodeCache(File baseDir, AbstractClassGenerator classGenerator) {
+        this.baseDir = baseDir;
+        this.classGenerator = classGenerator;
+        classGenerator.setBytecodeCache(this);
+    }
+
+    @Nullable
+    @Override
+    public byte[] get(HashCode key) {
+        File classFile = classFile(key);
+        if (!classFile.isFile()) {
+            return null;
+        }
+        try {
+            return Files.toByteArray(classFile);
+        } catch (IOException e) {
+            LOGGER.debug("Could not read generated class from {}.", classFile, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(HashCode key, byte[] bytecode) {
+        File classFile = classFile(key);
+        File tempFile = null;
+        try {
+            GFileUtils.mkdirs(baseDir);
+            tempFile = File.createTempFile(key.toString(), ".tmp", baseDir);
+            Files.write(bytecode, tempFile);
+            if (!tempFile.renameTo(classFile)) {
+                GFileUtils.deleteQuietly(tempFile);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not write generated class to {}.", classFile, e);
+            if (tempFile != null) {
+                GFileUtils.deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        classGenerator.removeBytecodeCache(this);
+    }
+
+    private File classFile(HashCode key) {
+        return new File(baseDir, key + ".class");
+    }
+}
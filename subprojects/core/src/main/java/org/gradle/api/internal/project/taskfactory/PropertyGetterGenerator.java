@@ -0,0 +1,262 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project.taskfactory;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.Transformer;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.asm.GeneratedClassCache;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.reflect.PropertyAccessorType;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.gradle.internal.asm.AsmGeneratedClassUtils.box;
+import static org.gradle.internal.asm.AsmGeneratedClassUtils.canSee;
+import static org.gradle.internal.asm.AsmGeneratedClassUtils.startClass;
+
+/**
+ * Creates {@link PropertyGetter} instances for getter methods.
+ *
+ * For each class declaring getters, a getter class is generated once into the ClassLoader and package of the declaring class.
+ * It calls the getters directly, so reading a property does not go through reflection.
+ * Getters that the generated class cannot call, such as private getters, are called reflectively.
+ * Either way, failures are reported in the same way: exceptions thrown by the getter are rethrown unchecked,
+ * and calling the getter on a bean of the wrong type fails with a {@link GradleException}.
+ */
+class PropertyGetterGenerator implements Opcodes {
+    private static final String CLASS_NAME_SUFFIX = "_PropertyGetter";
+    private static final String GETTERS_FIELD = "__getters__";
+    private static final GeneratedClassCache GENERATED_CLASSES = new GeneratedClassCache();
+
+    private static final Type INTERFACE_TYPE = Type.getType(PropertyGetter.class);
+    private static final Type OBJECT_TYPE = Type.getType(Object.class);
+    private static final Type STRING_ARRAY_TYPE = Type.getType(String[].class);
+    private static final Type EXCEPTION_TYPE = Type.getType(IllegalArgumentException.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.INT_TYPE);
+    private static final String GET_DESCRIPTOR = Type.getMethodDescriptor(OBJECT_TYPE, OBJECT_TYPE);
+    private static final String INDEX_FIELD = "index";
+
+    static PropertyGetter create(Method method) {
+        if (!Modifier.isPrivate(method.getModifiers())) {
+            Class<?> getterClass = getGetterClass(method.getDeclaringClass());
+            if (getterClass != null) {
+                try {
+                    int index = Arrays.asList((String[]) getterClass.getField(GETTERS_FIELD).get(null)).indexOf(method.getName());
+                    if (index >= 0) {
+                        return new GeneratedPropertyGetter(method, (PropertyGetter) getterClass.getConstructor(int.class).newInstance(index));
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(String.format("Could not create getter for %s.%s().", method.getDeclaringClass().getSimpleName(), method.getName()), e);
+                }
+            }
+        }
+        return new ReflectivePropertyGetter(method);
+    }
+
+    @Nullable
+    private static Class<?> getGetterClass(Class<?> type) {
+        return GENERATED_CLASSES.get(type, new Transformer<Class<?>, Class<?>>() {
+            @Override
+            public Class<?> transform(Class<?> type) {
+                if (!isSupported(type)) {
+                    return null;
+                }
+                try {
+                    return generate(type, getters(type));
+                } catch (LinkageError e) {
+                    // Fall back to reflection, for example when the package of the type is sealed
+                    return null;
+                } catch (SecurityException e) {
+                    // Fall back to reflection, for example when the package of the type is signed
+                    return null;
+                }
+            }
+        });
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        return !Modifier.isPrivate(type.getModifiers()) && !type.isArray() && classLoader != null && !type.getName().startsWith("java.") && canSee(classLoader, PropertyGetter.class);
+    }
+
+    private static List<Method> getters(Class<?> type) {
+        List<Method> getters = new ArrayList<Method>();
+        for (Method method : type.getDeclaredMethods()) {
+            PropertyAccessorType accessorType = PropertyAccessorType.of(method);
+            if (accessorType == null || accessorType == PropertyAccessorType.SETTER || method.isBridge() || Modifier.isPrivate(method.getModifiers())) {
+                continue;
+            }
+            getters.add(method);
+        }
+        return getters;
+    }
+
+    /**
+     * Generates:
+     *
+     * <pre>
+     * public final class Type_PropertyGetter implements PropertyGetter {
+     *     public static String[] __getters__;
+     *     private final int index;
+     *
+     *     public Type_PropertyGetter(int index) {
+     *         this.index = index;
+     *     }
+     *
+     *     public Object get(Object bean) {
+     *         switch (index) {
+     *             case 0:
+     *                 return ((Type) bean).getA();
+     *             case 1:
+     *                 return Boolean.valueOf(((Type) bean).isB());
+     *             default:
+     *                 throw new IllegalArgumentException();
+     *         }
+     *     }
+     * }
+     * </pre>
+     */
+    private static Class<?> generate(Class<?> type, List<Method> getters) {
+        String className = type.getName() + CLASS_NAME_SUFFIX;
+        Type generatedType = Type.getType("L" + className.replace('.', '/') + ";");
+        Type beanType = Type.getType(type);
+
+        ClassWriter visitor = startClass(generatedType, OBJECT_TYPE, INTERFACE_TYPE);
+        visitor.visitField(ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC, GETTERS_FIELD, STRING_ARRAY_TYPE.getDescriptor(), null, null).visitEnd();
+        visitor.visitField(ACC_PRIVATE | ACC_FINAL | ACC_SYNTHETIC, INDEX_FIELD, Type.INT_TYPE.getDescriptor(), null, null).visitEnd();
+
+        MethodVisitor constructor = visitor.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, OBJECT_TYPE.getInternalName(), "<init>", Type.getMethodDescriptor(Type.VOID_TYPE), false);
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ILOAD, 1);
+        constructor.visitFieldInsn(PUTFIELD, generatedType.getInternalName(), INDEX_FIELD, Type.INT_TYPE.getDescriptor());
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor mv = visitor.visitMethod(ACC_PUBLIC, "get", GET_DESCRIPTOR, null, null);
+        mv.visitCode();
+        Label unknown = new Label();
+        Label[] labels = new Label[getters.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = new Label();
+        }
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, generatedType.getInternalName(), INDEX_FIELD, Type.INT_TYPE.getDescriptor());
+        if (labels.length > 0) {
+            mv.visitTableSwitchInsn(0, labels.length - 1, unknown, labels);
+        } else {
+            mv.visitInsn(POP);
+        }
+        for (int i = 0; i < labels.length; i++) {
+            Method getter = getters.get(i);
+            mv.visitLabel(labels[i]);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, beanType.getInternalName());
+            if (type.isInterface()) {
+                mv.visitMethodInsn(INVOKEINTERFACE, beanType.getInternalName(), getter.getName(), Type.getMethodDescriptor(getter), true);
+            } else {
+                mv.visitMethodInsn(INVOKEVIRTUAL, beanType.getInternalName(), getter.getName(), Type.getMethodDescriptor(getter), false);
+            }
+            box(mv, Type.getReturnType(getter));
+            mv.visitInsn(ARETURN);
+        }
+        mv.visitLabel(unknown);
+        mv.visitTypeInsn(NEW, EXCEPTION_TYPE.getInternalName());
+        mv.visitInsn(DUP);
+        mv.visitMethodInsn(INVOKESPECIAL, EXCEPTION_TYPE.getInternalName(), "<init>", Type.getMethodDescriptor(Type.VOID_TYPE), false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        visitor.visitEnd();
+
+        Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), className, visitor.toByteArray());
+        String[] names = new String[getters.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = getters.get(i).getName();
+        }
+        try {
+            generatedClass.getField(GETTERS_FIELD).set(null, names);
+        } catch (Exception e) {
+            throw new IllegalStateException(String.format("Could not initialize getter class for %s.", type.getSimpleName()), e);
+        }
+        return generatedClass;
+    }
+
+    private static GradleException couldNotCall(Method method, Object bean, Exception cause) {
+        return new GradleException(String.format("Could not call %s.%s() on %s", method.getDeclaringClass().getSimpleName(), method.getName(), bean), cause);
+    }
+
+    private static class GeneratedPropertyGetter implements PropertyGetter {
+        private final Method method;
+        private final Class<?> declaringClass;
+        private final PropertyGetter generated;
+
+        GeneratedPropertyGetter(Method method, PropertyGetter generated) {
+            this.method = method;
+            this.declaringClass = method.getDeclaringClass();
+            this.generated = generated;
+        }
+
+        @Override
+        public Object get(Object bean) {
+            if (!declaringClass.isInstance(bean)) {
+                throw couldNotCall(method, bean, new IllegalArgumentException("object is not an instance of declaring class"));
+            }
+            try {
+                return generated.get(bean);
+            } catch (Exception e) {
+                // The generated class does not declare the checked exceptions that getters written in Groovy can throw
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private static class ReflectivePropertyGetter implements PropertyGetter {
+        private final Method method;
+
+        ReflectivePropertyGetter(Method method) {
+            this.method = method;
+            method.setAccessible(true);
+        }
+
+        @Override
+        public Object get(Object bean) {
+            try {
+                return method.invoke(bean);
+            } catch (InvocationTargetException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (Exception e) {
+                throw couldNotCall(method, bean, e);
+            }
+        }
+    }
+}
@@ -16,19 +16,16 @@
 
 package org.gradle.api.internal.project.taskfactory;
 
-import org.gradle.api.GradleException;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.tasks.TaskPropertyValue;
 import org.gradle.api.internal.tasks.TaskValidationContext;
 import org.gradle.api.internal.tasks.ValidationAction;
 import org.gradle.internal.Factory;
-import org.gradle.internal.UncheckedException;
 import org.gradle.util.DeferredUtil;
 import org.gradle.util.DeprecationLogger;
 
 import javax.annotation.Nonnull;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 public class TaskPropertyInfo implements Comparable<TaskPropertyInfo> {
@@ -41,15 +38,14 @@ public class TaskPropertyInfo implements Comparable<TaskPropertyInfo> {
     private final TaskPropertyInfo parent;
     private final String propertyName;
     private final Class<? extends Annotation> propertyType;
-    private final Method method;
+    private final PropertyGetter getter;
     private final UpdateAction configureAction;
 
     TaskPropertyInfo(TaskPropertyInfo parent, String propertyName, Class<? extends Annotation> propertyType, Method method, UpdateAction configureAction) {
         this.parent = parent;
         this.propertyName = propertyName;
         this.propertyType = propertyType;
-        this.method = method;
-        method.setAccessible(true);
+        this.getter = PropertyGetterGenerator.create(method);
         this.configureAction = configureAction == null ? NO_OP_CONFIGURATION_ACTION : configureAction;
     }
 
@@ -84,13 +80,7 @@ public class TaskPropertyInfo implements Comparable<TaskPropertyInfo> {
 
         final Object value = DeprecationLogger.whileDisabled(new Factory<Object>() {
             public Object create() {
-                try {
-                    return method.invoke(bean);
-                } catch (InvocationTargetException e) {
-                    throw UncheckedException.throwAsUncheckedException(e.getCause());
-                } catch (Exception e) {
-                    throw new GradleException(String.format("Could not call %s.%s() on %s", method.getDeclaringClass().getSimpleName(), method.getName(), bean), e);
-                }
+                return getter.get(bean);
             }
         });
 
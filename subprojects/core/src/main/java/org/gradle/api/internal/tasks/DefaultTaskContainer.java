@@ -33,6 +33,7 @@ import org.gradle.api.internal.project.taskfactory.ITaskFactory;
 import org.gradle.api.tasks.TaskCollection;
 import org.gradle.api.tasks.TaskReference;
 import org.gradle.initialization.ProjectAccessListener;
+import org.gradle.internal.Cast;
 import org.gradle.internal.Transformers;
 import org.gradle.internal.metaobject.DynamicObject;
 import org.gradle.internal.reflect.Instantiator;
@@ -46,6 +47,7 @@ import org.gradle.model.internal.core.UnmanagedModelProjection;
 import org.gradle.model.internal.core.rule.describe.SimpleModelRuleDescriptor;
 import org.gradle.model.internal.type.ModelType;
 import org.gradle.util.ConfigureUtil;
+import org.gradle.util.NameValidator;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -58,6 +60,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final ITaskFactory taskFactory;
     private final ProjectAccessListener projectAccessListener;
     private final Set<String> placeholders = Sets.newHashSet();
+    private final Set<String> deferredTasks = Sets.newHashSet();
     private final NamedEntityInstantiator<Task> instantiator;
 
     public DefaultTaskContainer(MutableModelNode modelNode, ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
@@ -83,6 +86,13 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
         if (placeholders.remove(name)) {
             modelNode.removeLink(name);
+        } else if (deferredTasks.contains(name)) {
+            if (!replaceExisting) {
+                throw new InvalidUserDataException(String.format(
+                    "Cannot add %s as a task with that name already exists.", task));
+            }
+            deferredTasks.remove(name);
+            modelNode.removeLink(name);
         }
 
         Task existing = findByNameWithoutRules(name);
@@ -154,6 +164,22 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return addTask(task, true);
     }
 
+    @Override
+    public <T extends Task> void createLater(String name, Class<T> type, Action<? super T> configuration) {
+        NameValidator.validate(name, "task name", "");
+        if (placeholders.remove(name)) {
+            modelNode.removeLink(name);
+        }
+        if (findByNameWithoutRules(name) != null || modelNode.hasLink(name)) {
+            throw new InvalidUserDataException(String.format(
+                "Cannot add task '%s' as a task with that name already exists.", name));
+        }
+        Class<TaskInternal> taskType = Cast.uncheckedCast(type.isAssignableFrom(TaskInternal.class) ? TaskInternal.class : type);
+        Action<? super TaskInternal> taskConfiguration = Cast.uncheckedCast(configuration);
+        addTaskCreator(name, taskType, taskConfiguration, "tasks.createLater(" + name + ")");
+        deferredTasks.add(name);
+    }
+
     public Task findByPath(String path) {
         if (Strings.isNullOrEmpty(path)) {
             throw new InvalidUserDataException("A path must be specified!");
@@ -263,21 +289,25 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
     public <T extends TaskInternal> void addPlaceholderAction(final String placeholderName, final Class<T> taskType, final Action<? super T> configure) {
         if (!modelNode.hasLink(placeholderName)) {
-            final ModelType<T> taskModelType = ModelType.of(taskType);
-            ModelPath path = MODEL_PATH.child(placeholderName);
-            modelNode.addLink(
-                ModelRegistrations.of(path)
-                    .action(ModelActionRole.Create, new TaskCreator<T>(placeholderName, taskType, configure, taskModelType))
-                    .withProjection(new UnmanagedModelProjection<T>(taskModelType))
-                    .descriptor(new SimpleModelRuleDescriptor("tasks.addPlaceholderAction(" + placeholderName + ")"))
-                    .build()
-            );
+            addTaskCreator(placeholderName, taskType, configure, "tasks.addPlaceholderAction(" + placeholderName + ")");
         }
         if (findByNameWithoutRules(placeholderName) == null) {
             placeholders.add(placeholderName);
         }
     }
 
+    private <T extends TaskInternal> void addTaskCreator(String name, Class<T> taskType, Action<? super T> configure, String descriptor) {
+        ModelType<T> taskModelType = ModelType.of(taskType);
+        ModelPath path = MODEL_PATH.child(name);
+        modelNode.addLink(
+            ModelRegistrations.of(path)
+                .action(ModelActionRole.Create, new TaskCreator<T>(name, taskType, configure, taskModelType))
+                .withProjection(new UnmanagedModelProjection<T>(taskModelType))
+                .descriptor(new SimpleModelRuleDescriptor(descriptor))
+                .build()
+        );
+    }
+
     public <U extends Task> NamedDomainObjectContainer<U> containerWithType(Class<U> type) {
         throw new UnsupportedOperationException();
     }
@@ -318,6 +348,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         @Override
         public void execute(final MutableModelNode mutableModelNode) {
             DefaultTaskContainer taskContainer = mutableModelNode.getParent().getPrivateData(ModelType.of(DefaultTaskContainer.class));
+            taskContainer.deferredTasks.remove(placeholderName);
             T task = taskContainer.taskFactory.create(placeholderName, taskType);
             configure.execute(task);
             taskContainer.add(task);
@@ -169,10 +169,15 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
             String id = INTERNER.intern("cp_" + initialPassScriptTarget.getId());
             CompileOperation<PluginRequests> initialOperation = new FactoryBackedCompileOperation<PluginRequests>(id, initialTransformer, initialPassStatementTransformer, pluginRequestsSerializer);
 
-            ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compiler.compile(scriptType, initialOperation, baseScope.getExportClassLoader(), Actions.doNothing());
-            initialRunner.run(target, services);
-
-            PluginRequests initialPluginRequests = initialRunner.getData();
+            PluginRequests initialPluginRequests;
+            if (initialPassStatementTransformer.mayContainScriptBlocks(scriptSource.getResource().getText())) {
+                ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compiler.compile(scriptType, initialOperation, baseScope.getExportClassLoader(), Actions.doNothing());
+                initialRunner.run(target, services);
+                initialPluginRequests = initialRunner.getData();
+            } else {
+                // The initial pass would compile to an empty script, so don't bother compiling it
+                initialPluginRequests = initialPassStatementTransformer.create();
+            }
             PluginRequests mergedPluginRequests = autoAppliedPluginHandler.mergeWithAutoAppliedPlugins(initialPluginRequests, target);
 
             PluginManagerInternal pluginManager = topLevelScript ? initialPassScriptTarget.getPluginManager() : null;
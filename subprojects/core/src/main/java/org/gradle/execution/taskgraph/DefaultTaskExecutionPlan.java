@@ -131,7 +131,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     }
 
     public void addToTaskGraph(Collection<? extends Task> tasks) {
-        List<TaskInfo> queue = new ArrayList<TaskInfo>();
+        Deque<TaskInfo> queue = new ArrayDeque<TaskInfo>();
 
         List<Task> sortedTasks = new ArrayList<Task>(tasks);
         Collections.sort(sortedTasks);
@@ -150,10 +150,10 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         CachingTaskDependencyResolveContext context = new CachingTaskDependencyResolveContext();
 
         while (!queue.isEmpty()) {
-            TaskInfo node = queue.get(0);
+            TaskInfo node = queue.peekFirst();
             if (node.getDependenciesProcessed()) {
                 // Have already visited this task - skip it
-                queue.remove(0);
+                queue.removeFirst();
                 continue;
             }
 
@@ -161,7 +161,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
             boolean filtered = !filter.isSatisfiedBy(task);
             if (filtered) {
                 // Task is not required - skip it
-                queue.remove(0);
+                queue.removeFirst();
                 node.dependenciesProcessed();
                 node.doNotRequire();
                 filteredTasks.add(task);
@@ -178,14 +178,14 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                     TaskInfo targetNode = nodeFactory.createNode(dependsOnTask);
                     node.addDependencySuccessor(targetNode);
                     if (!visiting.contains(targetNode)) {
-                        queue.add(0, targetNode);
+                        queue.addFirst(targetNode);
                     }
                 }
                 for (Task finalizerTask : task.getFinalizedBy().getDependencies(task)) {
                     TaskInfo targetNode = nodeFactory.createNode(finalizerTask);
                     addFinalizerNode(node, targetNode);
                     if (!visiting.contains(targetNode)) {
-                        queue.add(0, targetNode);
+                        queue.addFirst(targetNode);
                     }
                 }
                 for (Task mustRunAfter : task.getMustRunAfter().getDependencies(task)) {
@@ -207,7 +207,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                 }
             } else {
                 // Have visited this task's dependencies - add it to the graph
-                queue.remove(0);
+                queue.removeFirst();
                 visiting.remove(node);
                 node.dependenciesProcessed();
             }
@@ -216,24 +216,24 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
     }
 
     private void resolveTasksInUnknownState() {
-        List<TaskInfo> queue = new ArrayList<TaskInfo>(tasksInUnknownState);
+        Deque<TaskInfo> queue = new ArrayDeque<TaskInfo>(tasksInUnknownState);
         Set<TaskInfo> visiting = new HashSet<TaskInfo>();
 
         while (!queue.isEmpty()) {
-            TaskInfo task = queue.get(0);
+            TaskInfo task = queue.peekFirst();
             if (task.isInKnownState()) {
-                queue.remove(0);
+                queue.removeFirst();
                 continue;
             }
 
             if (visiting.add(task)) {
                 for (TaskInfo hardPredecessor : task.getDependencyPredecessors()) {
                     if (!visiting.contains(hardPredecessor)) {
-                        queue.add(0, hardPredecessor);
+                        queue.addFirst(hardPredecessor);
                     }
                 }
             } else {
-                queue.remove(0);
+                queue.removeFirst();
                 visiting.remove(task);
                 task.mustNotRun();
                 for (TaskInfo predecessor : task.getDependencyPredecessors()) {
@@ -24,6 +24,7 @@ import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.DefaultPersistentDirectoryStore;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
@@ -33,6 +34,7 @@ import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.model.dsl.internal.transform.RuleVisitor;
+import org.gradle.util.GFileUtils;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
@@ -43,6 +45,7 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
@@ -50,8 +53,13 @@ import java.net.URI;
 
 /**
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
+ *
+ * <p>When a shared script cache directory is configured, compiled classes are looked up there before compiling. The shared directory uses the same layout as the script
+ * cache in the Gradle user home, so a populated {@code caches/<gradle-version>} directory from another machine can be used as-is. The shared directory is never written to.</p>
  */
 public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler, Closeable {
+    public static final String SHARED_CACHE_DIR_PROPERTY = "org.gradle.internal.scripts.shared.cache.dir";
+
     private final ScriptCompilationHandler scriptCompilationHandler;
     private final ProgressLoggerFactory progressLoggerFactory;
     private final CacheRepository cacheRepository;
@@ -59,10 +67,17 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     private final ScriptSourceHasher hasher;
     private final ClassLoaderCache classLoaderCache;
     private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final File sharedCacheDir;
 
     public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler,
                                               ProgressLoggerFactory progressLoggerFactory, ScriptSourceHasher hasher, ClassLoaderCache classLoaderCache,
                                               ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        this(cacheRepository, validator, scriptCompilationHandler, progressLoggerFactory, hasher, classLoaderCache, classLoaderHierarchyHasher, null);
+    }
+
+    public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler,
+                                              ProgressLoggerFactory progressLoggerFactory, ScriptSourceHasher hasher, ClassLoaderCache classLoaderCache,
+                                              ClassLoaderHierarchyHasher classLoaderHierarchyHasher, @Nullable File sharedCacheDir) {
         this.cacheRepository = cacheRepository;
         this.validator = validator;
         this.scriptCompilationHandler = scriptCompilationHandler;
@@ -70,6 +85,7 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         this.hasher = hasher;
         this.classLoaderCache = classLoaderCache;
         this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        this.sharedCacheDir = sharedCacheDir;
     }
 
     @Override
@@ -137,10 +153,12 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         private final ClassLoader classLoader;
         private final CompileOperation<?> transformer;
         private final ScriptSource source;
+        private final String cacheKey;
 
-        public <T extends Script> CompileToCrossBuildCacheAction(ScriptSource source, ClassLoader classLoader, CompileOperation<?> transformer,
+        public <T extends Script> CompileToCrossBuildCacheAction(ScriptSource source, String cacheKey, ClassLoader classLoader, CompileOperation<?> transformer,
                                                                  Action<? super ClassNode> verifier, Class<T> scriptBaseClass) {
             this.source = source;
+            this.cacheKey = cacheKey;
             this.classLoader = classLoader;
             this.transformer = transformer;
             this.verifier = verifier;
@@ -150,8 +168,36 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         public void execute(PersistentCache cache) {
             File classesDir = classesDir(cache);
             File metadataDir = metadataDir(cache);
+            if (copyFromSharedCache(classesDir, metadataDir)) {
+                return;
+            }
             scriptCompilationHandler.compileToDir(source, classLoader, classesDir, metadataDir, transformer, scriptBaseClass, verifier);
         }
+
+        private boolean copyFromSharedCache(File classesDir, File metadataDir) {
+            if (sharedCacheDir == null || !validator.isValid()) {
+                return false;
+            }
+            File sharedEntryDir = new File(sharedCacheDir, cacheKey);
+            File sharedClassesDir = new File(sharedEntryDir, "classes");
+            File sharedMetadataDir = new File(sharedEntryDir, "metadata");
+            if (!isComplete(sharedEntryDir, sharedClassesDir, sharedMetadataDir)) {
+                return false;
+            }
+            GFileUtils.copyDirectory(sharedClassesDir, classesDir);
+            GFileUtils.copyDirectory(sharedMetadataDir, metadataDir);
+            return true;
+        }
+
+        /**
+         * The persistent cache writes the properties file of an entry only once the entry has been initialized, and the metadata of a script
+         * is written after its classes. An entry that has both was completely written, rather than interrupted or still being written.
+         */
+        private boolean isComplete(File entryDir, File classesDir, File metadataDir) {
+            return new File(entryDir, DefaultPersistentDirectoryStore.PROPERTIES_FILE_NAME).isFile()
+                && classesDir.isDirectory()
+                && new File(metadataDir, DefaultScriptCompilationHandler.METADATA_FILE_NAME).isFile();
+        }
     }
 
     static class ProgressReportingInitializer implements Action<PersistentCache> {
@@ -396,12 +442,13 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         }
 
         public void execute(final PersistentCache remappedClassesCache) {
-            final PersistentCache cache = cacheRepository.cache("scripts/" + sourceHash + "/" + dslId + "/" + classpathHash)
+            final String cacheKey = "scripts/" + sourceHash + "/" + dslId + "/" + classpathHash;
+            final PersistentCache cache = cacheRepository.cache(cacheKey)
                 .withValidator(validator)
                 .withDisplayName(dslId + " generic class cache for " + source.getDisplayName())
                 .withInitializer(new ProgressReportingInitializer(
                     progressLoggerFactory,
-                    new CompileToCrossBuildCacheAction(remapped, classLoader, operation, verifier, scriptBaseClass),
+                    new CompileToCrossBuildCacheAction(remapped, cacheKey, classLoader, operation, verifier, scriptBaseClass),
                     "Compiling script into cache",
                     "Compiling " + source.getDisplayName() + " to cross build script cache"))
                 .open();
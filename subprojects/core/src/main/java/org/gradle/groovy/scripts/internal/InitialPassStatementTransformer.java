@@ -26,6 +26,7 @@ import org.gradle.internal.Factory;
 import org.gradle.plugin.management.internal.PluginRequests;
 import org.gradle.plugin.use.internal.PluginUseScriptBlockMetadataExtractor;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.List;
 
@@ -114,6 +115,25 @@ public class InitialPassStatementTransformer implements StatementTransformer, Fa
         }
     }
 
+    /**
+     * Returns false when the given script text cannot contain any of the blocks extracted by this transformer, so that compiling the initial pass would produce an empty script.
+     */
+    public boolean mayContainScriptBlocks(@Nullable String scriptText) {
+        if (scriptText == null) {
+            return false;
+        }
+        if (scriptText.contains("\\u")) {
+            // Block names may be spelled using unicode escapes
+            return true;
+        }
+        for (String scriptBlockName : scriptBlockNames) {
+            if (scriptText.contains(scriptBlockName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String makePluginManagementError(String failureMessage) {
         return String.format(
             "%s%n%nSee %s for information on the pluginManagement {} block%n%n",
@@ -103,6 +103,11 @@ public class DefaultCachedClasspathTransformer implements CachedClasspathTransfo
         @Override
         public File transform(final File original) {
             if (shouldUseFromCache(original)) {
+                // Cached jars are immutable and published atomically, so only a miss needs to take the cross-process lock
+                File cachedFile = jarCache.findCachedJar(original, cache.getBaseDir());
+                if (cachedFile != null) {
+                    return cachedFile;
+                }
                 return cache.useCache(new Factory<File>() {
                     public File create() {
                         return jarCache.getCachedJar(original, Factories.constant(cache.getBaseDir()));
@@ -17,12 +17,15 @@
 package org.gradle.internal.file;
 
 import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.Factory;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.util.GFileUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
 
 @ThreadSafe
 public class JarCache {
@@ -42,10 +45,54 @@ public class JarCache {
     public File getCachedJar(File original, Factory<File> baseDirFactory) {
         HashCode hashValue = fileHasher.hash(original);
         File baseDir = baseDirFactory.create();
-        File cachedFile = new File(baseDir, hashValue.toString() + '/' + original.getName());
+        File cachedFile = cachedFile(original, hashValue, baseDir);
         if (!cachedFile.isFile()) {
-            GFileUtils.copyFile(original, cachedFile);
+            copyAtomically(original, cachedFile);
         }
         return cachedFile;
     }
+
+    /**
+     * Returns the cached copy of the given file when it is already present in the given base directory, or null when it is not.
+     *
+     * <p>Cached copies are immutable and are published with an atomic rename, so this method can be called without holding the cache lock.
+     * A cached copy whose length differs from the original is treated as missing, as it may still be being written by a Gradle version that
+     * copies the file in place while holding the lock.</p>
+     *
+     * @param original The source file.
+     * @param baseDir The base directory for the file cache.
+     * @return The cached file, or null.
+     */
+    @Nullable
+    public File findCachedJar(File original, File baseDir) {
+        HashCode hashValue = fileHasher.hash(original);
+        File cachedFile = cachedFile(original, hashValue, baseDir);
+        if (cachedFile.isFile() && cachedFile.length() == original.length()) {
+            return cachedFile;
+        }
+        return null;
+    }
+
+    private static File cachedFile(File original, HashCode hashValue, File baseDir) {
+        return new File(baseDir, hashValue.toString() + '/' + original.getName());
+    }
+
+    private static void copyAtomically(File original, File cachedFile) {
+        File parentDir = cachedFile.getParentFile();
+        GFileUtils.mkdirs(parentDir);
+        File tempFile;
+        try {
+            tempFile = File.createTempFile(cachedFile.getName(), ".tmp", parentDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            GFileUtils.copyFile(original, tempFile);
+            if (!tempFile.renameTo(cachedFile) && !cachedFile.isFile()) {
+                throw new UncheckedIOException(String.format("Could not move %s to %s.", tempFile, cachedFile));
+            }
+        } finally {
+            GFileUtils.deleteQuietly(tempFile);
+        }
+    }
 }
@@ -66,6 +66,14 @@ import static org.gradle.internal.Cast.uncheckedCast;
  * The «path-base» param is optional.
  * If invoked as `-Dorg.gradle.internal.operations.trace`, a base value of "operations" will be used.
  *
+ * When the full trace is not enabled, the most recent events are kept in a fixed size in-memory buffer.
+ * Recording an event only writes a few primitive values to the buffer, so this is enabled by default.
+ * The tree files are written only when the build fails, or at the end of every build if `-Dorg.gradle.internal.operations.trace.recorder.dump=always` is given.
+ * They are written to «gradle-user-home»/build-operations/last-build-tree.json and -tree.txt by default,
+ * or to another «path-base» with `-Dorg.gradle.internal.operations.trace.recorder=«path-base»`.
+ * The recorder can be disabled with `-Dorg.gradle.internal.operations.trace.recorder=false`.
+ * Details and results are not retained by the recorder, only their types.
+ *
  * The “trace” produced here is different to the trace produced by Gradle Profiler.
  * There, the focus is analyzing the performance profile.
  * Here, the focus is debugging/developing the information structure of build operations.
@@ -75,28 +83,39 @@ import static org.gradle.internal.Cast.uncheckedCast;
 public class BuildOperationTrace implements Stoppable {
 
     public static final String SYSPROP = "org.gradle.internal.operations.trace";
+    public static final String RECORDER_SYSPROP = "org.gradle.internal.operations.trace.recorder";
+    public static final String RECORDER_DUMP_SYSPROP = "org.gradle.internal.operations.trace.recorder.dump";
+
+    private static final String RECORDER_DEFAULT_PATH = "build-operations/last-build";
 
     private final String basePath;
     private final OutputStream logOutputStream;
     private final BuildOperationListenerManager listenerManager;
 
     private BuildOperationListener listener;
+    private RecordingBuildOperationListener recorder;
+    private boolean dumpAlways;
 
     public BuildOperationTrace(StartParameter startParameter, BuildOperationListenerManager listenerManager) {
         this.listenerManager = listenerManager;
 
         Map<String, String> sysProps = startParameter.getSystemPropertiesArgs();
-        String basePath = sysProps.get(SYSPROP);
-        if (basePath == null) {
-            basePath = System.getProperty(SYSPROP);
-        }
+        String basePath = sysProperty(sysProps, SYSPROP);
 
-        this.basePath = basePath;
-        if (this.basePath == null) {
+        if (basePath == null) {
             this.logOutputStream = null;
+            this.basePath = recorderBasePath(startParameter, sysProperty(sysProps, RECORDER_SYSPROP));
+            if (this.basePath != null) {
+                dumpAlways = "always".equals(sysProperty(sysProps, RECORDER_DUMP_SYSPROP));
+                recorder = new RecordingBuildOperationListener(RecordingBuildOperationListener.DEFAULT_CAPACITY);
+                listener = recorder;
+                listenerManager.addListener(listener);
+            }
             return;
         }
 
+        this.basePath = basePath;
+
         try {
             File logFile = logFile(basePath);
             GFileUtils.mkdirs(logFile.getParentFile());
@@ -133,6 +152,17 @@ public class BuildOperationTrace implements Stoppable {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
         }
+
+        if (recorder != null && (dumpAlways || recorder.hasFailure())) {
+            try {
+                List<BuildOperationRecord> roots = recorder.toTreeRoots();
+                GFileUtils.mkdirs(file(basePath, "-tree.json").getParentFile());
+                writeDetailTree(roots);
+                writeSummaryTree(roots);
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
     }
 
     private void writeDetailTree(List<BuildOperationRecord> roots) throws IOException {
@@ -302,6 +332,21 @@ public class BuildOperationTrace implements Stoppable {
 
     }
 
+    private static String recorderBasePath(StartParameter startParameter, String value) {
+        if ("false".equals(value)) {
+            return null;
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return new File(startParameter.getGradleUserHomeDir(), RECORDER_DEFAULT_PATH).getPath();
+        }
+        return value;
+    }
+
+    private static String sysProperty(Map<String, String> sysProps, String name) {
+        String value = sysProps.get(name);
+        return value == null ? System.getProperty(name) : value;
+    }
+
     private static File logFile(String basePath) {
         return file(basePath, "-log.txt");
     }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import org.gradle.internal.logging.events.OperationIdentifier;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.progress.BuildOperationListener;
+import org.gradle.internal.progress.OperationFinishEvent;
+import org.gradle.internal.progress.OperationProgressEvent;
+import org.gradle.internal.progress.OperationStartEvent;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records the build operation stream as fixed size binary records in a ring buffer, keeping only the most recent events.
+ *
+ * Each record holds the event kind, the operation and parent ids, a timestamp and the interned id of the details or result type.
+ * Finish records also hold the start time and details type of the operation, so an operation that was still running when its start record
+ * was overwritten, such as the root build operation, is still part of the trace.
+ * Display names and failure messages are held by reference in parallel arrays, so recording an event does not allocate.
+ * Details and results are not retained, only their type.
+ *
+ * The records are converted to the same tree structure as the JSON trace only when requested.
+ *
+ * Note: this is relying on Gradle's listener infrastructure serializing dispatch
+ * and prevent concurrent invocations of started/finished.
+ */
+class RecordingBuildOperationListener implements BuildOperationListener {
+
+    static final int DEFAULT_CAPACITY = 1 << 15;
+
+    private static final int RECORD_SIZE = 48;
+    private static final int KIND_OFFSET = 0;
+    private static final int TYPE_OFFSET = 4;
+    private static final int ID_OFFSET = 8;
+    private static final int PARENT_ID_OFFSET = 16;
+    private static final int TIME_OFFSET = 24;
+    private static final int START_TIME_OFFSET = 32;
+    private static final int DETAILS_TYPE_OFFSET = 40;
+
+    private static final byte STARTED = 1;
+    private static final byte PROGRESS = 2;
+    private static final byte FINISHED = 3;
+
+    private static final long NO_PARENT = 0;
+    private static final int NO_TYPE = -1;
+
+    private final int capacity;
+    private final ByteBuffer records;
+    private final String[] displayNames;
+    private final String[] failures;
+    private final Map<Class<?>, Integer> typeIds = new HashMap<Class<?>, Integer>();
+    private final List<String> typeNames = new ArrayList<String>();
+    private long count;
+    private boolean failed;
+
+    RecordingBuildOperationListener(int capacity) {
+        this.capacity = capacity;
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_SIZE);
+        this.displayNames = new String[capacity];
+        this.failures = new String[capacity];
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        int index = next(STARTED, buildOperation, typeOf(buildOperation.getDetails()));
+        displayNames[index] = buildOperation.getDisplayName();
+        records.putLong(index * RECORD_SIZE + TIME_OFFSET, startEvent.getStartTime());
+    }
+
+    @Override
+    public void progress(BuildOperationDescriptor buildOperation, OperationProgressEvent progressEvent) {
+        int index = next(PROGRESS, buildOperation, typeOf(progressEvent.getDetails()));
+        records.putLong(index * RECORD_SIZE + TIME_OFFSET, progressEvent.getTime());
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        Throwable failure = finishEvent.getFailure();
+        int index = next(FINISHED, buildOperation, typeOf(finishEvent.getResult()));
+        int offset = index * RECORD_SIZE;
+        displayNames[index] = buildOperation.getDisplayName();
+        failures[index] = failure == null ? null : failure.toString();
+        records.putLong(offset + TIME_OFFSET, finishEvent.getEndTime());
+        records.putLong(offset + START_TIME_OFFSET, finishEvent.getStartTime());
+        records.putInt(offset + DETAILS_TYPE_OFFSET, typeOf(buildOperation.getDetails()));
+        if (failure != null && buildOperation.getParentId() == null) {
+            failed = true;
+        }
+    }
+
+    /**
+     * Returns true when a root build operation has failed.
+     */
+    boolean hasFailure() {
+        return failed;
+    }
+
+    private int next(byte kind, BuildOperationDescriptor buildOperation, int type) {
+        int index = (int) (count++ % capacity);
+        int offset = index * RECORD_SIZE;
+        displayNames[index] = null;
+        failures[index] = null;
+        Object parentId = buildOperation.getParentId();
+        records.put(offset + KIND_OFFSET, kind);
+        records.putInt(offset + TYPE_OFFSET, type);
+        records.putLong(offset + ID_OFFSET, ((OperationIdentifier) buildOperation.getId()).getId());
+        records.putLong(offset + PARENT_ID_OFFSET, parentId == null ? NO_PARENT : ((OperationIdentifier) parentId).getId());
+        return index;
+    }
+
+    private int typeOf(Object value) {
+        if (value == null) {
+            return NO_TYPE;
+        }
+        Class<?> type = value.getClass();
+        Integer id = typeIds.get(type);
+        if (id == null) {
+            id = typeNames.size();
+            typeIds.put(type, id);
+            typeNames.add(type.getName());
+        }
+        return id;
+    }
+
+    /**
+     * Converts the retained records to trees of operations.
+     * Operations that have not finished are discarded. Operations whose start has been overwritten are rebuilt from their finish record,
+     * and operations whose parent has been discarded become roots.
+     */
+    List<BuildOperationRecord> toTreeRoots() {
+        long first = Math.max(0, count - capacity);
+        Set<Long> finished = new HashSet<Long>();
+        for (long i = first; i < count; i++) {
+            int offset = (int) (i % capacity) * RECORD_SIZE;
+            if (records.get(offset + KIND_OFFSET) == FINISHED) {
+                finished.add(records.getLong(offset + ID_OFFSET));
+            }
+        }
+
+        List<BuildOperationRecord> roots = new ArrayList<BuildOperationRecord>();
+        Map<Long, PendingOperation> pendings = new HashMap<Long, PendingOperation>();
+        Map<Long, List<BuildOperationRecord>> childrens = new HashMap<Long, List<BuildOperationRecord>>();
+
+        for (long i = first; i < count; i++) {
+            int index = (int) (i % capacity);
+            int offset = index * RECORD_SIZE;
+            long id = records.getLong(offset + ID_OFFSET);
+            long parentId = records.getLong(offset + PARENT_ID_OFFSET);
+            long time = records.getLong(offset + TIME_OFFSET);
+            String type = typeName(records.getInt(offset + TYPE_OFFSET));
+            byte kind = records.get(offset + KIND_OFFSET);
+            if (kind == STARTED) {
+                pendings.put(id, new PendingOperation(displayNames[index], time, type));
+            } else if (kind == PROGRESS) {
+                PendingOperation pending = pendings.get(id);
+                if (pending != null) {
+                    pending.progress.add(new BuildOperationRecord.Progress(time, null, type));
+                }
+            } else {
+                PendingOperation pending = pendings.remove(id);
+                if (pending == null) {
+                    pending = new PendingOperation(displayNames[index], records.getLong(offset + START_TIME_OFFSET), typeName(records.getInt(offset + DETAILS_TYPE_OFFSET)));
+                }
+                List<BuildOperationRecord> children = childrens.remove(id);
+                BuildOperationRecord record = new BuildOperationRecord(
+                    id,
+                    parentId == NO_PARENT ? null : parentId,
+                    pending.displayName,
+                    pending.startTime,
+                    time,
+                    null,
+                    pending.detailsClassName,
+                    null,
+                    type,
+                    failures[index],
+                    pending.progress,
+                    children == null ? new LinkedList<BuildOperationRecord>() : children
+                );
+                if (parentId != NO_PARENT && finished.contains(parentId)) {
+                    List<BuildOperationRecord> parentChildren = childrens.get(parentId);
+                    if (parentChildren == null) {
+                        parentChildren = new LinkedList<BuildOperationRecord>();
+                        childrens.put(parentId, parentChildren);
+                    }
+                    parentChildren.add(record);
+                } else {
+                    roots.add(record);
+                }
+            }
+        }
+
+        return Collections.unmodifiableList(roots);
+    }
+
+    private String typeName(int type) {
+        return type == NO_TYPE ? null : typeNames.get(type);
+    }
+
+    private static class PendingOperation {
+
+        final String displayName;
+        final long startTime;
+        final String detailsClassName;
+        final List<BuildOperationRecord.Progress> progress = new ArrayList<BuildOperationRecord.Progress>();
+
+        PendingOperation(String displayName, long startTime, String detailsClassName) {
+            this.displayName = displayName;
+            this.startTime = startTime;
+            this.detailsClassName = detailsClassName;
+        }
+    }
+}
@@ -163,6 +163,8 @@ import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.internal.BuildScopeToolingModelBuilderRegistryAction;
 import org.gradle.tooling.provider.model.internal.DefaultToolingModelBuilderRegistry;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.util.List;
 
 /**
@@ -280,7 +282,17 @@ public class BuildScopeServices extends DefaultServiceRegistry {
             progressLoggerFactory,
             hasher,
             classLoaderCache,
-            classLoaderHierarchyHasher);
+            classLoaderHierarchyHasher,
+            sharedScriptCacheDir(startParameter));
+    }
+
+    @Nullable
+    private static File sharedScriptCacheDir(StartParameter startParameter) {
+        String sharedCacheDir = startParameter.getSystemPropertiesArgs().get(FileCacheBackedScriptClassCompiler.SHARED_CACHE_DIR_PROPERTY);
+        if (sharedCacheDir == null) {
+            sharedCacheDir = System.getProperty(FileCacheBackedScriptClassCompiler.SHARED_CACHE_DIR_PROPERTY);
+        }
+        return sharedCacheDir == null ? null : new File(sharedCacheDir);
     }
 
     protected ScriptPluginFactory createScriptPluginFactory(ScriptingLanguages scriptingLanguages, InstantiatorFactory instantiatorFactory, BuildOperationExecutor buildOperationExecutor) {
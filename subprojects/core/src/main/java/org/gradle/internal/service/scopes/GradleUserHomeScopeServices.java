@@ -16,9 +16,13 @@
 
 package org.gradle.internal.service.scopes;
 
+import org.gradle.api.internal.AbstractClassGenerator;
+import org.gradle.api.internal.ClassGenerator;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
+import org.gradle.api.internal.DefaultGeneratedClassBytecodeCache;
+import org.gradle.api.internal.GeneratedClassBytecodeCache;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.ClasspathSnapshotter;
@@ -47,6 +51,8 @@ import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.cache.internal.DefaultCacheScopeMapping;
+import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
 import org.gradle.groovy.scripts.internal.DefaultScriptSourceHasher;
 import org.gradle.groovy.scripts.internal.RegistryAwareClassLoaderHierarchyHasher;
@@ -82,7 +88,9 @@ import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.worker.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.process.internal.worker.child.WorkerProcessClassPathProvider;
+import org.gradle.util.GradleVersion;
 
+import java.io.File;
 import java.util.List;
 
 /**
@@ -95,8 +103,14 @@ public class GradleUserHomeScopeServices {
         this.globalServices = globalServices;
     }
 
-    public void configure(ServiceRegistration registration, GradleUserHomeDirProvider userHomeDirProvider) {
+    public void configure(ServiceRegistration registration, GradleUserHomeDirProvider userHomeDirProvider, ClassGenerator classGenerator) {
         registration.addProvider(new CacheRepositoryServices(userHomeDirProvider.getGradleUserHomeDirectory(), null));
+        if (classGenerator instanceof AbstractClassGenerator) {
+            // Created eagerly, as the class generator is used before any service of this scope is requested
+            File generatedClassesDir = new DefaultCacheScopeMapping(userHomeDirProvider.getGradleUserHomeDirectory(), null, GradleVersion.current())
+                .getBaseDirectory(null, "generated-classes", VersionStrategy.CachePerVersion);
+            registration.add(GeneratedClassBytecodeCache.class, new DefaultGeneratedClassBytecodeCache(generatedClassesDir, (AbstractClassGenerator) classGenerator));
+        }
         for (PluginServiceRegistry plugin : globalServices.getAll(PluginServiceRegistry.class)) {
             plugin.registerGradleUserHomeServices(registration);
         }
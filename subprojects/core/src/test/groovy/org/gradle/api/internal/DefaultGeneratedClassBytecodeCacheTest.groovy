@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal
+
+import com.google.common.io.ByteStreams
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+import javax.inject.Inject
+import java.lang.reflect.ParameterizedType
+
+class DefaultGeneratedClassBytecodeCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def classGenerator = new AsmBackedClassGenerator()
+    def key = Hashing.md5().hashString("key")
+
+    def "returns null for missing entry"() {
+        def cache = new DefaultGeneratedClassBytecodeCache(tmpDir.file("classes"), classGenerator)
+
+        expect:
+        cache.get(key) == null
+    }
+
+    def "can read entry written by another instance"() {
+        def bytecode = [1, 2, 3] as byte[]
+
+        when:
+        new DefaultGeneratedClassBytecodeCache(tmpDir.file("classes"), classGenerator).put(key, bytecode)
+
+        then:
+        new DefaultGeneratedClassBytecodeCache(tmpDir.file("classes"), classGenerator).get(key) == bytecode
+        tmpDir.file("classes").list() as List == ["${key}.class"]
+    }
+
+    def "stores classes generated by class generator"() {
+        def cache = new DefaultGeneratedClassBytecodeCache(tmpDir.file("classes"), classGenerator)
+
+        when:
+        classGenerator.generate(GeneratedBean)
+
+        then:
+        tmpDir.file("classes").list().length == 1
+
+        cleanup:
+        cache.stop()
+    }
+
+    def "detaches from class generator when stopped"() {
+        def cache = new DefaultGeneratedClassBytecodeCache(tmpDir.file("classes"), classGenerator)
+
+        when:
+        cache.stop()
+
+        then:
+        classGenerator.bytecodeCache == null
+    }
+
+    def "defines class from persisted bytecode in a fresh ClassLoader"() {
+        def services = Mock(ServiceRegistry)
+        def cacheDir = tmpDir.file("classes")
+
+        given:
+        def cache = new DefaultGeneratedClassBytecodeCache(cacheDir, classGenerator)
+        classGenerator.generate(isolatedCopyOf(BeanWithGenericService))
+        cache.stop()
+
+        when:
+        def cacheFromDisk = Spy(DefaultGeneratedClassBytecodeCache, constructorArgs: [cacheDir, classGenerator])
+        def type = isolatedCopyOf(BeanWithGenericService)
+        def generated = classGenerator.generate(type)
+
+        then:
+        1 * cacheFromDisk.get(_)
+        0 * cacheFromDisk.put(_, _)
+
+        and:
+        generated.superclass == type
+        generated.name == type.name + "_Decorated"
+
+        when:
+        def bean = DirectInstantiator.instantiate(generated, services)
+
+        then:
+        bean.thing == ["value"]
+
+        and:
+        1 * services.get({ it instanceof ParameterizedType && it.rawType == List && it.actualTypeArguments == [String] as java.lang.reflect.Type[] }) >> ["value"]
+
+        cleanup:
+        cacheFromDisk?.stop()
+    }
+
+    def "cache key changes when the bytecode of the decorated type changes"() {
+        def cache = Mock(GeneratedClassBytecodeCache)
+        def keys = []
+        def bytecode = bytecode(GeneratedBean)
+        classGenerator.bytecodeCache = cache
+
+        when:
+        classGenerator.generate(isolatedCopyOf(GeneratedBean, bytecode))
+        classGenerator.generate(isolatedCopyOf(GeneratedBean, bytecode))
+        classGenerator.generate(isolatedCopyOf(GeneratedBean, withExtraField(bytecode)))
+
+        then:
+        3 * cache.get(_) >> { HashCode key -> keys << key; null }
+
+        and:
+        keys[0] == keys[1]
+        keys[2] != keys[0]
+
+        cleanup:
+        classGenerator.removeBytecodeCache(cache)
+    }
+
+    private static Class<?> isolatedCopyOf(Class<?> type) {
+        isolatedCopyOf(type, bytecode(type))
+    }
+
+    private static Class<?> isolatedCopyOf(Class<?> type, byte[] bytecode) {
+        new IsolatingClassLoader(type, bytecode).loadClass(type.name)
+    }
+
+    private static byte[] bytecode(Class<?> type) {
+        def inputStream = type.classLoader.getResourceAsStream(resourceName(type.name))
+        try {
+            ByteStreams.toByteArray(inputStream)
+        } finally {
+            inputStream.close()
+        }
+    }
+
+    private static byte[] withExtraField(byte[] bytecode) {
+        def writer = new ClassWriter(0)
+        new ClassReader(bytecode).accept(new ClassVisitor(Opcodes.ASM6, writer) {
+            @Override
+            void visitEnd() {
+                visitField(Opcodes.ACC_PUBLIC, "extra", "I", null, null).visitEnd()
+                super.visitEnd()
+            }
+        }, 0)
+        writer.toByteArray()
+    }
+
+    static String resourceName(String className) {
+        className.replace('.', '/') + ".class"
+    }
+
+    /**
+     * Defines its own copy of a single class from the given bytecode, and loads everything else from the parent.
+     */
+    static class IsolatingClassLoader extends ClassLoader {
+        private final String className
+        private final byte[] bytecode
+
+        IsolatingClassLoader(Class<?> type, byte[] bytecode) {
+            super(type.classLoader)
+            this.className = type.name
+            this.bytecode = bytecode
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name != className) {
+                return super.loadClass(name, resolve)
+            }
+            def loaded = findLoadedClass(name)
+            if (loaded == null) {
+                loaded = defineClass(name, bytecode, 0, bytecode.length)
+            }
+            return loaded
+        }
+
+        @Override
+        InputStream getResourceAsStream(String name) {
+            if (name == resourceName(className)) {
+                return new ByteArrayInputStream(bytecode)
+            }
+            return super.getResourceAsStream(name)
+        }
+    }
+
+    static class GeneratedBean {
+        String prop
+    }
+
+    static class BeanWithGenericService {
+        ServiceRegistry services
+
+        BeanWithGenericService(ServiceRegistry services) {
+            this.services = services
+        }
+
+        @Inject
+        List<String> getThing() { throw new UnsupportedOperationException() }
+    }
+}
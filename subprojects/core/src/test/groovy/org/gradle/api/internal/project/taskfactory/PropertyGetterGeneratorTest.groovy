@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project.taskfactory
+
+import org.gradle.api.GradleException
+import org.gradle.internal.UncheckedException
+import spock.lang.Specification
+
+import java.util.concurrent.TimeoutException
+
+class PropertyGetterGeneratorTest extends Specification {
+
+    def "generated getter reads property values"() {
+        def bean = new Bean()
+
+        expect:
+        def getter = PropertyGetterGenerator.create(Bean.getDeclaredMethod(method))
+        getter.generated.class.name.endsWith("_PropertyGetter")
+        getter.get(bean) == value
+
+        where:
+        method     | value
+        "getName"  | "name"
+        "isFlag"   | true
+        "getCount" | 12L
+    }
+
+    def "generated getter calls interface methods"() {
+        expect:
+        def getter = PropertyGetterGenerator.create(HasName.getMethod("getName"))
+        getter.generated.class.name.endsWith("_PropertyGetter")
+        getter.get(new Bean()) == "name"
+    }
+
+    def "uses reflection for private getters"() {
+        expect:
+        def getter = PropertyGetterGenerator.create(Bean.getDeclaredMethod("getSecret"))
+        !(getter instanceof PropertyGetterGenerator.GeneratedPropertyGetter)
+        getter.get(new Bean()) == "secret"
+    }
+
+    def "propagates exception thrown by getter"() {
+        def getter = PropertyGetterGenerator.create(Bean.getDeclaredMethod("getBroken"))
+
+        when:
+        getter.get(new Bean())
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "broken"
+    }
+
+    def "rethrows checked exception thrown by getter as unchecked exception"() {
+        def getter = PropertyGetterGenerator.create(Bean.getDeclaredMethod(method))
+
+        when:
+        getter.get(new Bean())
+
+        then:
+        def e = thrown(UncheckedException)
+        e.cause instanceof TimeoutException
+        e.cause.message == "checked"
+
+        where:
+        method << ["getChecked", "getPrivateChecked"]
+    }
+
+    def "fails when getter is called on bean of wrong type"() {
+        def getter = PropertyGetterGenerator.create(Bean.getDeclaredMethod(method))
+
+        when:
+        getter.get("not a bean")
+
+        then:
+        def e = thrown(GradleException)
+        e.message == "Could not call Bean.${method}() on not a bean"
+        e.cause instanceof IllegalArgumentException
+
+        where:
+        method << ["getName", "getSecret"]
+    }
+
+    interface HasName {
+        String getName()
+    }
+
+    static class Bean implements HasName {
+        String getName() {
+            return "name"
+        }
+
+        boolean isFlag() {
+            return true
+        }
+
+        long getCount() {
+            return 12
+        }
+
+        String getBroken() {
+            throw new IllegalStateException("broken")
+        }
+
+        String getChecked() {
+            throw new TimeoutException("checked")
+        }
+
+        private String getSecret() {
+            return "secret"
+        }
+
+        private String getPrivateChecked() {
+            throw new TimeoutException("checked")
+        }
+    }
+}
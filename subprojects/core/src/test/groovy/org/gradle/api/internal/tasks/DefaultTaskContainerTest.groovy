@@ -348,6 +348,50 @@ public class DefaultTaskContainerTest extends Specification {
         container.names == ['task1', 'task2'] as SortedSet
     }
 
+    void "does not create task defined using createLater until it is required"() {
+        given:
+        def action = Mock(Action)
+
+        when:
+        container.createLater("task", DefaultTask, action)
+
+        then:
+        0 * taskFactory._
+        0 * action._
+        container.names == ['task'] as SortedSet
+
+        when:
+        def result = container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", DefaultTask) >> { task(it[0], it[1]) }
+        1 * action.execute(_)
+        result.name == "task"
+    }
+
+    void "cannot define task using createLater when task already exists"() {
+        given:
+        addTask("task")
+
+        when:
+        container.createLater("task", DefaultTask, Mock(Action))
+
+        then:
+        def e = thrown(InvalidUserDataException)
+        e.message == "Cannot add task 'task' as a task with that name already exists."
+    }
+
+    void "cannot add task with same name as task defined using createLater"() {
+        given:
+        container.createLater("task", DefaultTask, Mock(Action))
+
+        when:
+        addTask("task")
+
+        then:
+        thrown(InvalidUserDataException)
+    }
+
     void "maybeCreate creates new task"() {
         given:
         def task = task("task")
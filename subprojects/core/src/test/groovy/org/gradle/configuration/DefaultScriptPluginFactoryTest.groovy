@@ -44,6 +44,7 @@ import org.gradle.internal.hash.HashCode
 import org.gradle.internal.hash.StreamHasher
 import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.reflect.Instantiator
+import org.gradle.internal.resource.TextResource
 import org.gradle.internal.resource.TextResourceLoader
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector
@@ -57,6 +58,7 @@ class DefaultScriptPluginFactoryTest extends Specification {
     def scriptCompilerFactory = Mock(ScriptCompilerFactory)
     def scriptCompiler = Mock(ScriptCompiler)
     def scriptSource = Mock(ScriptSource)
+    def scriptResource = Mock(TextResource)
     def scriptRunner = Mock(ScriptRunner)
     def script = Mock(BasicScript)
     def instantiator = Mock(Instantiator)
@@ -94,6 +96,8 @@ class DefaultScriptPluginFactoryTest extends Specification {
         configuration.getFiles() >> Collections.emptySet()
         baseScope.getExportClassLoader() >> baseChildClassLoader
         classpathHasher.hash(_) >> HashCode.fromInt(123)
+        scriptSource.resource >> scriptResource
+        scriptResource.text >> "buildscript { }"
 
         1 * targetScope.getLocalClassLoader() >> scopeClassLoader
         1 * autoAppliedPluginHandler.mergeWithAutoAppliedPlugins(_, _) >> new DefaultPluginRequests(Lists.newArrayList())
@@ -252,4 +256,25 @@ class DefaultScriptPluginFactoryTest extends Specification {
         1 * scriptRunner.run(target, { scriptServices -> scriptServices.get(ScriptPluginFactory) == otherScriptPluginFactory })
         0 * scriptRunner._
     }
+
+    void "does not compile initial pass when script cannot contain any script blocks"() {
+        given:
+        final Object target = new Object()
+
+        when:
+        def configurer = factory.create(scriptSource, scriptHandler, targetScope, baseScope, false)
+        configurer.apply(target)
+
+        then:
+        _ * scriptResource.text >> "println 'hello'"
+        1 * loggingManagerFactory.create() >> loggingManager
+        1 * scriptCompilerFactory.createCompiler(scriptSource) >> scriptCompiler
+        0 * scriptCompiler.compile(DefaultScript, _, baseChildClassLoader, _)
+        1 * pluginRequestApplicator.applyPlugins(_, scriptHandler, null, targetScope)
+        1 * scriptCompiler.compile(DefaultScript, { it.transformer != null }, scopeClassLoader, !null) >> scriptRunner
+        _ * scriptRunner.data >> new BuildScriptData(true)
+        _ * scriptRunner.runDoesSomething >> true
+        1 * scriptRunner.run(target, _ as ServiceRegistry)
+        0 * scriptRunner._
+    }
 }
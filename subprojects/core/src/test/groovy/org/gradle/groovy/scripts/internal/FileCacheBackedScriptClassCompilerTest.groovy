@@ -27,12 +27,18 @@ import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
 import org.gradle.internal.classloader.ClassLoaderHierarchyHasher
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.logging.progress.ProgressLogger
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
 import org.gradle.internal.resource.TextResource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
+import spock.lang.Unroll
 
 class FileCacheBackedScriptClassCompilerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     final ScriptCompilationHandler scriptCompilationHandler = Mock()
     final CacheRepository cacheRepository = Mock()
     final CacheBuilder localCacheBuilder = Mock()
@@ -165,6 +171,126 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         0 * scriptCompilationHandler._
     }
 
+    def "copies classes from shared cache directory instead of compiling when available"() {
+        def sharedDir = tmpDir.createDir("shared")
+        def globalDir = tmpDir.createDir("global")
+        def localDir = tmpDir.createDir("local")
+        def sharedEntryDir = sharedDir.file("scripts/${HashUtil.compactStringFor(HashCode.fromInt(0x0123))}/TransformerId/TransformerId${HashCode.fromInt(9999)}")
+        sharedEntryDir.createDir("classes")
+        sharedEntryDir.file("metadata/metadata.bin").text = "metadata"
+        sharedEntryDir.file("cache.properties").createFile()
+        def compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, Stub(ProgressLoggerFactory), hasher, classLoaderCache, classLoaderHierarchyHasher, sharedDir)
+        def localCache = Stub(PersistentCache) {
+            getBaseDir() >> localDir
+        }
+        def globalCache = Stub(PersistentCache) {
+            getBaseDir() >> globalDir
+        }
+        def initializer, globalInitializer
+
+        when:
+        def result = compiler.compile(source, classLoader, classLoaderId, operation, Script, verifier).loadClass()
+
+        then:
+        result == Script
+        _ * validator.isValid() >> true
+        1 * hasher.hash(source) >> HashCode.fromInt(0x0123)
+        1 * cacheRepository.cache({ it.startsWith("scripts-remapped/") }) >> localCacheBuilder
+        1 * localCacheBuilder.withInitializer(!null) >> { args ->
+            initializer = args[0]
+            localCacheBuilder
+        }
+        1 * localCacheBuilder.withDisplayName(!null) >> localCacheBuilder
+        1 * localCacheBuilder.withValidator(!null) >> localCacheBuilder
+        1 * localCacheBuilder.open() >> {
+            initializer.execute(localCache)
+            localCache
+        }
+
+        1 * cacheRepository.cache({ it.startsWith("scripts/") }) >> globalCacheBuilder
+        1 * globalCacheBuilder.withDisplayName(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.withInitializer(!null) >> { args ->
+            globalInitializer = args[0]
+            globalCacheBuilder
+        }
+        1 * globalCacheBuilder.withValidator(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.open() >> {
+            globalInitializer.execute(globalCache)
+            globalCache
+        }
+
+        1 * scriptCompilationHandler.loadFromDir(source, _, classLoader, new File(localDir, 'classes'), new File(localDir, 'metadata'), operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+
+        and:
+        new File(globalDir, "metadata/metadata.bin").text == "metadata"
+        new File(localDir, "metadata/metadata.bin").text == "metadata"
+    }
+
+    @Unroll
+    def "compiles script instead of using shared cache entry when #description"() {
+        def sharedDir = tmpDir.createDir("shared")
+        def globalDir = tmpDir.createDir("global")
+        def sharedEntryDir = sharedDir.file("scripts/${HashUtil.compactStringFor(HashCode.fromInt(0x0123))}/TransformerId/TransformerId${HashCode.fromInt(9999)}")
+        sharedEntryDir.createDir("classes")
+        if (hasMetadata) {
+            sharedEntryDir.file("metadata/metadata.bin").text = "metadata"
+        } else {
+            sharedEntryDir.createDir("metadata")
+        }
+        if (hasProperties) {
+            sharedEntryDir.file("cache.properties").createFile()
+        }
+        def compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, Stub(ProgressLoggerFactory), hasher, classLoaderCache, classLoaderHierarchyHasher, sharedDir)
+        def localCache = Stub(PersistentCache) {
+            getBaseDir() >> tmpDir.createDir("local")
+        }
+        def globalCache = Stub(PersistentCache) {
+            getBaseDir() >> globalDir
+        }
+        def initializer, globalInitializer
+
+        when:
+        compiler.compile(source, classLoader, classLoaderId, operation, Script, verifier)
+
+        then:
+        _ * validator.isValid() >> valid
+        1 * hasher.hash(source) >> HashCode.fromInt(0x0123)
+        1 * cacheRepository.cache({ it.startsWith("scripts-remapped/") }) >> localCacheBuilder
+        1 * localCacheBuilder.withInitializer(!null) >> { args ->
+            initializer = args[0]
+            localCacheBuilder
+        }
+        1 * localCacheBuilder.withDisplayName(!null) >> localCacheBuilder
+        1 * localCacheBuilder.withValidator(!null) >> localCacheBuilder
+        1 * localCacheBuilder.open() >> {
+            initializer.execute(localCache)
+            localCache
+        }
+
+        1 * cacheRepository.cache({ it.startsWith("scripts/") }) >> globalCacheBuilder
+        1 * globalCacheBuilder.withDisplayName(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.withInitializer(!null) >> { args ->
+            globalInitializer = args[0]
+            globalCacheBuilder
+        }
+        1 * globalCacheBuilder.withValidator(!null) >> globalCacheBuilder
+        1 * globalCacheBuilder.open() >> {
+            globalInitializer.execute(globalCache)
+            globalCache
+        }
+
+        1 * scriptCompilationHandler.compileToDir({ it instanceof RemappingScriptSource }, classLoader, new File(globalDir, "classes"), new File(globalDir, "metadata"), operation, Script, verifier)
+        1 * scriptCompilationHandler.loadFromDir(source, _, classLoader, _, _, operation, Script, classLoaderId) >> compiledScript
+        0 * scriptCompilationHandler._
+
+        where:
+        description                               | hasProperties | hasMetadata | valid
+        "entry has no cache properties file"      | false         | true        | true
+        "entry has no script metadata"            | true          | false       | true
+        "scripts are recompiled"                  | true          | true        | false
+    }
+
     def "reports compilation progress even in case of a failure"() {
         def factory = Mock(ProgressLoggerFactory)
         def delegate = Mock(Action)
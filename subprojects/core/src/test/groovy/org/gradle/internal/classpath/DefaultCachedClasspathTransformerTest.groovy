@@ -31,9 +31,8 @@ class DefaultCachedClasspathTransformerTest extends Specification {
     @Rule TestNameTestDirectoryProvider testDirectoryProvider = new TestNameTestDirectoryProvider()
     TestFile testDir = testDirectoryProvider.testDirectory
 
-    PersistentCache cache = Stub(PersistentCache) {
+    PersistentCache cache = Mock(PersistentCache) {
         getBaseDir() >> testDir.file("cached")
-        useCache(_) >> { Factory f -> f.create() }
     }
     CacheBuilder cacheBuilder = Stub(CacheBuilder) {
         open() >> cache
@@ -65,6 +64,8 @@ class DefaultCachedClasspathTransformerTest extends Specification {
         ClassPath cachedClassPath = transformer.transform(classPath)
 
         then:
+        1 * jarCache.findCachedJar(externalFile, testDir.file("cached")) >> null
+        1 * cache.useCache(_) >> { Factory f -> f.create() }
         1 * jarCache.getCachedJar(externalFile, _) >> cachedFile
 
         and:
@@ -83,9 +84,27 @@ class DefaultCachedClasspathTransformerTest extends Specification {
         Collection<URL> cachedUrls = transformer.transform([externalFile.toURI().toURL(), httpURL, alreadyCachedFile, externalDir])
 
         then:
+        1 * cache.useCache(_) >> { Factory f -> f.create() }
         1 * jarCache.getCachedJar(externalFile, _) >> cachedFile
 
         and:
         cachedUrls == [ cachedFile.toURI().toURL(), httpURL, alreadyCachedFile, externalDir ]
     }
+
+    def "uses jar already in the cache without locking the cache"() {
+        given:
+        File externalFile = testDir.file("external/file1").createFile()
+        File cachedFile = testDir.file("cached/file1").createFile()
+
+        when:
+        ClassPath cachedClassPath = transformer.transform(DefaultClassPath.of([externalFile]))
+
+        then:
+        1 * jarCache.findCachedJar(externalFile, testDir.file("cached")) >> cachedFile
+        0 * cache.useCache(_)
+        0 * jarCache.getCachedJar(_, _)
+
+        and:
+        cachedClassPath.asFiles == [ cachedFile ]
+    }
 }
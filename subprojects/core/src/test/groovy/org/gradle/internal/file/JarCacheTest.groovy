@@ -101,6 +101,46 @@ class JarCacheTest extends Specification {
         copy.text == original.text
     }
 
+    def "finds file that has already been copied into the cache directory"() {
+        given:
+        fileHasher.hash(original) >> HashCode.fromInt(123)
+        def copy = cache(original)
+
+        expect:
+        cache.findCachedJar(original, cacheDir) == copy
+    }
+
+    def "does not find file that has not been copied into the cache directory"() {
+        given:
+        fileHasher.hash(original) >> HashCode.fromInt(123)
+
+        expect:
+        cache.findCachedJar(original, cacheDir) == null
+        cacheDir.list().length == 0
+    }
+
+    def "does not find file that has only partially been copied into the cache directory"() {
+        given:
+        original.text = "some content"
+        fileHasher.hash(original) >> HashCode.fromInt(123)
+        def copy = cache(original)
+        copy.text = "some"
+
+        expect:
+        cache.findCachedJar(original, cacheDir) == null
+    }
+
+    def "does not leave temporary files in the cache directory"() {
+        given:
+        fileHasher.hash(original) >> HashCode.fromInt(123)
+
+        when:
+        def copy = cache(original)
+
+        then:
+        copy.parentFile.list() as List == [original.name]
+    }
+
     def cache(TestFile original)  {
         return cache.getCachedJar(original, { cacheDir } as Factory)
     }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import org.gradle.StartParameter
+import org.gradle.internal.logging.events.OperationIdentifier
+import org.gradle.internal.progress.BuildOperationDescriptor
+import org.gradle.internal.progress.BuildOperationListener
+import org.gradle.internal.progress.BuildOperationListenerManager
+import org.gradle.internal.progress.OperationFinishEvent
+import org.gradle.internal.progress.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildOperationTraceTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def startParameter = new StartParameter()
+    def listenerManager = Mock(BuildOperationListenerManager)
+    BuildOperationListener listener
+
+    def setup() {
+        startParameter.gradleUserHomeDir = tmpDir.file("user-home")
+    }
+
+    def "records operations by default and writes trace to Gradle user home when root operation fails after buffer has wrapped"() {
+        def trace = createTrace()
+        def root = descriptor(1, null, "Run build")
+
+        when:
+        listener.started(root, new OperationStartEvent(0))
+        (2..RecordingBuildOperationListener.DEFAULT_CAPACITY).each {
+            def child = descriptor(it, 1, "child $it")
+            listener.started(child, new OperationStartEvent(it))
+            listener.finished(child, new OperationFinishEvent(it, it, null, null))
+        }
+        listener.finished(root, new OperationFinishEvent(0, 100000, new RuntimeException("broken"), null))
+        trace.stop()
+
+        then:
+        def tree = tmpDir.file("user-home/build-operations/last-build-tree.json")
+        tree.text.contains('"failure": "java.lang.RuntimeException: broken"')
+        def summary = tmpDir.file("user-home/build-operations/last-build-tree.txt").readLines()
+        summary[0] == "Run build [100000ms] (1)"
+        summary.last().startsWith("  child ${RecordingBuildOperationListener.DEFAULT_CAPACITY} ")
+    }
+
+    def "does not write trace when build succeeds"() {
+        def trace = createTrace()
+        def root = descriptor(1, null, "Run build")
+
+        when:
+        listener.started(root, new OperationStartEvent(0))
+        listener.finished(root, new OperationFinishEvent(0, 1, null, null))
+        trace.stop()
+
+        then:
+        !tmpDir.file("user-home/build-operations").exists()
+    }
+
+    def "writes trace to given path when build succeeds and dump is always requested"() {
+        startParameter.systemPropertiesArgs = [(BuildOperationTrace.RECORDER_SYSPROP): tmpDir.file("trace/ops").path, (BuildOperationTrace.RECORDER_DUMP_SYSPROP): "always"]
+        def trace = createTrace()
+        def root = descriptor(1, null, "Run build")
+
+        when:
+        listener.started(root, new OperationStartEvent(0))
+        listener.finished(root, new OperationFinishEvent(0, 1, null, null))
+        trace.stop()
+
+        then:
+        tmpDir.file("trace/ops-tree.txt").readLines() == ["Run build [1ms] (1)"]
+        !tmpDir.file("user-home/build-operations").exists()
+    }
+
+    def "recorder can be disabled"() {
+        startParameter.systemPropertiesArgs = [(BuildOperationTrace.RECORDER_SYSPROP): "false"]
+
+        when:
+        new BuildOperationTrace(startParameter, listenerManager).stop()
+
+        then:
+        0 * listenerManager._
+    }
+
+    def createTrace() {
+        1 * listenerManager.addListener(_) >> { BuildOperationListener l -> listener = l }
+        return new BuildOperationTrace(startParameter, listenerManager)
+    }
+
+    def descriptor(long id, Long parentId, String displayName) {
+        BuildOperationDescriptor.displayName(displayName).build(new OperationIdentifier(id), parentId == null ? null : new OperationIdentifier(parentId))
+    }
+}
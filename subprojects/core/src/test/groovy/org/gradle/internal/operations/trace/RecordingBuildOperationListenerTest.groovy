@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import org.gradle.internal.logging.events.OperationIdentifier
+import org.gradle.internal.progress.BuildOperationDescriptor
+import org.gradle.internal.progress.OperationFinishEvent
+import org.gradle.internal.progress.OperationProgressEvent
+import org.gradle.internal.progress.OperationStartEvent
+import spock.lang.Specification
+
+class RecordingBuildOperationListenerTest extends Specification {
+
+    def "builds tree of recorded operations"() {
+        given:
+        def recorder = new RecordingBuildOperationListener(16)
+        def root = descriptor(1, null, "root")
+        def child = descriptor(2, 1, "child", "details")
+
+        when:
+        recorder.started(root, new OperationStartEvent(10))
+        recorder.started(child, new OperationStartEvent(11))
+        recorder.progress(child, new OperationProgressEvent(12, 1))
+        recorder.finished(child, new OperationFinishEvent(11, 13, null, 2L))
+        recorder.finished(root, new OperationFinishEvent(10, 14, null, null))
+        def roots = recorder.toTreeRoots()
+
+        then:
+        roots.size() == 1
+        roots[0].id == 1L
+        roots[0].parentId == null
+        roots[0].displayName == "root"
+        roots[0].startTime == 10
+        roots[0].endTime == 14
+        roots[0].children.size() == 1
+
+        def record = roots[0].children[0]
+        record.id == 2L
+        record.parentId == 1L
+        record.displayName == "child"
+        record.detailsType == String
+        record.resultType == Long
+        record.progress*.time == [12L]
+        record.failure == null
+        !recorder.hasFailure()
+    }
+
+    def "keeps only most recent operations when buffer is full"() {
+        given:
+        def recorder = new RecordingBuildOperationListener(5)
+        def root = descriptor(1, null, "root")
+        recorder.started(root, new OperationStartEvent(0))
+
+        when:
+        (2..4).each {
+            def child = descriptor(it, 1, "child $it")
+            recorder.started(child, new OperationStartEvent(it))
+            recorder.finished(child, new OperationFinishEvent(it, it, null, null))
+        }
+        recorder.finished(root, new OperationFinishEvent(0, 5, new RuntimeException("broken"), null))
+        def roots = recorder.toTreeRoots()
+
+        then:
+        roots.size() == 1
+        roots[0].displayName == "root"
+        roots[0].parentId == null
+        roots[0].startTime == 0
+        roots[0].endTime == 5
+        roots[0].failure == "java.lang.RuntimeException: broken"
+        roots[0].children*.displayName == ["child 3", "child 4"]
+        roots[0].children*.parentId == [1L, 1L]
+        recorder.hasFailure()
+    }
+
+    def "keeps operation whose start has been overwritten while it is running"() {
+        given:
+        def recorder = new RecordingBuildOperationListener(4)
+        def root = descriptor(1, null, "root")
+        def configure = descriptor(2, 1, "configure", "details")
+        recorder.started(root, new OperationStartEvent(0))
+        recorder.started(configure, new OperationStartEvent(1))
+
+        when:
+        (3..5).each {
+            def child = descriptor(it, 2, "child $it")
+            recorder.started(child, new OperationStartEvent(it))
+            recorder.finished(child, new OperationFinishEvent(it, it, null, null))
+        }
+        recorder.finished(configure, new OperationFinishEvent(1, 6, null, null))
+        def roots = recorder.toTreeRoots()
+
+        then:
+        roots*.displayName == ["configure"]
+        roots[0].parentId == 1L
+        roots[0].startTime == 1
+        roots[0].endTime == 6
+        roots[0].detailsType == String
+        roots[0].children*.displayName == ["child 4", "child 5"]
+        !recorder.hasFailure()
+    }
+
+    def "discards operations that have not finished"() {
+        given:
+        def recorder = new RecordingBuildOperationListener(16)
+        def root = descriptor(1, null, "root")
+        def child = descriptor(2, 1, "child")
+
+        when:
+        recorder.started(root, new OperationStartEvent(0))
+        recorder.started(child, new OperationStartEvent(1))
+        recorder.finished(child, new OperationFinishEvent(1, 2, null, null))
+        def roots = recorder.toTreeRoots()
+
+        then:
+        roots*.displayName == ["child"]
+        roots[0].parentId == 1L
+    }
+
+    def descriptor(long id, Long parentId, String displayName, Object details = null) {
+        BuildOperationDescriptor.displayName(displayName).details(details).build(new OperationIdentifier(id), parentId == null ? null : new OperationIdentifier(parentId))
+    }
+}
@@ -27,14 +27,21 @@ import org.gradle.api.internal.artifacts.dependencies.DefaultImmutableVersionCon
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.Version;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
 import org.gradle.internal.resolve.ModuleVersionNotFoundException;
 import org.gradle.internal.resolve.ModuleVersionResolveException;
 import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
+import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult;
 import org.gradle.internal.resolve.result.ComponentSelectionContext;
 import org.gradle.internal.resolve.result.DefaultBuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.DefaultBuildableModuleVersionListingResolveResult;
@@ -42,6 +49,8 @@ import org.gradle.internal.resolve.result.ResourceAwareResolveResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -50,6 +59,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.gradle.internal.resolve.ResolveExceptionAnalyzer.hasCriticalFailure;
 import static org.gradle.internal.resolve.ResolveExceptionAnalyzer.isCriticalFailure;
@@ -63,10 +73,16 @@ public class DynamicVersionResolver {
     private final List<String> repositoryNames = new ArrayList<String>();
     private final VersionedComponentChooser versionedComponentChooser;
     private final Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory;
+    private final BuildOperationExecutor buildOperationExecutor;
 
     public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory) {
+        this(versionedComponentChooser, metaDataFactory, null);
+    }
+
+    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, @Nullable BuildOperationExecutor buildOperationExecutor) {
         this.versionedComponentChooser = versionedComponentChooser;
         this.metaDataFactory = metaDataFactory;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -128,9 +144,32 @@ public class DynamicVersionResolver {
         // Nothing found - do a second pass
         queue.addAll(missing);
         missing.clear();
+        listVersionsConcurrently(queue);
         return findLatestModule(queue, failures, missing);
     }
 
+    /**
+     * Lists the versions from several repositories at the same time, rather than one repository after the other. Version selection
+     * still happens in repository order, so the result does not depend on which repository answers first.
+     *
+     * <p>As with the sequential pass, a critical failure stops the search: listings that have not started yet are skipped, and
+     * the results of repositories after the failing one are discarded when versions are selected.</p>
+     */
+    private void listVersionsConcurrently(final List<RepositoryResolveState> resolveStates) {
+        if (buildOperationExecutor == null || resolveStates.size() < 2) {
+            return;
+        }
+        final AtomicBoolean criticalFailure = new AtomicBoolean();
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
+                for (RepositoryResolveState resolveState : resolveStates) {
+                    buildOperationQueue.add(new ListVersionsOperation(resolveState, criticalFailure));
+                }
+            }
+        });
+    }
+
     private RepositoryChainModuleResolution findLatestModule(LinkedList<RepositoryResolveState> queue, Collection<Throwable> failures, Collection<RepositoryResolveState> missing) {
         RepositoryChainModuleResolution best = null;
         while (!queue.isEmpty()) {
@@ -296,6 +335,37 @@ public class DynamicVersionResolver {
         }
     }
 
+    private static class ListVersionsOperation implements RunnableBuildOperation {
+        private final RepositoryResolveState resolveState;
+        private final AtomicBoolean criticalFailure;
+
+        ListVersionsOperation(RepositoryResolveState resolveState, AtomicBoolean criticalFailure) {
+            this.resolveState = resolveState;
+            this.criticalFailure = criticalFailure;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            if (criticalFailure.get()) {
+                // Leave this repository to the ordered pass, which only lists it if it comes before the failing repository
+                return;
+            }
+            VersionListResult versionListingResult = resolveState.versionListingResult;
+            Throwable failure = versionListingResult.resolveAndKeepFailure();
+            if (failure == null && versionListingResult.result.getState() == BuildableModuleVersionListingResolveResult.State.Failed) {
+                failure = versionListingResult.result.getFailure();
+            }
+            if (failure != null && isCriticalFailure(failure)) {
+                criticalFailure.set(true);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("List versions of " + resolveState.dependency.getRequested() + " from " + resolveState.repository.getName());
+        }
+    }
+
     private static class CandidateResult implements ModuleComponentResolveState {
         private final ModuleComponentIdentifier identifier;
         private final ModuleComponentRepository repository;
@@ -389,13 +459,32 @@ public class DynamicVersionResolver {
 
         private boolean searchedLocally;
         private boolean searchedRemotely;
+        private Throwable keptFailure;
 
         public VersionListResult(DependencyMetadata dependency, ModuleComponentRepository repository) {
             this.dependency = dependency;
             this.repository = repository;
         }
 
+        /**
+         * Resolves the version list, keeping any failure so that it is reported by the next call to {@link #resolve()}
+         * rather than by the thread doing the listing.
+         */
+        Throwable resolveAndKeepFailure() {
+            try {
+                resolve();
+            } catch (Throwable t) {
+                keptFailure = t;
+            }
+            return keptFailure;
+        }
+
         void resolve() {
+            if (keptFailure != null) {
+                Throwable failure = keptFailure;
+                keptFailure = null;
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
             if (!searchedLocally) {
                 searchedLocally = true;
                 process(dependency, repository.getLocalAccess());
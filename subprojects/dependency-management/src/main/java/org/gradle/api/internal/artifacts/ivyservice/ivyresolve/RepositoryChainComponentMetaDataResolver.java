@@ -29,6 +29,8 @@ import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolv
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
@@ -44,10 +46,16 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
     private final List<String> repositoryNames = new ArrayList<String>();
     private final VersionedComponentChooser versionedComponentChooser;
     private final Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory;
+    private final ResolvedComponentCache resolvedComponents;
 
     public RepositoryChainComponentMetaDataResolver(VersionedComponentChooser componentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory) {
+        this(componentChooser, metaDataFactory, null);
+    }
+
+    RepositoryChainComponentMetaDataResolver(VersionedComponentChooser componentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, @Nullable ResolvedComponentCache resolvedComponents) {
         this.versionedComponentChooser = componentChooser;
         this.metaDataFactory = metaDataFactory;
+        this.resolvedComponents = resolvedComponents;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -80,6 +88,15 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
     }
 
     private void resolveModule(ModuleComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+        if (resolvedComponents != null) {
+            ModuleComponentResolveMetadata resolved = resolvedComponents.getComponent(identifier, componentOverrideMetadata);
+            if (resolved != null) {
+                LOGGER.debug("Using previously resolved {}", resolved.getId());
+                result.resolved(resolved);
+                return;
+            }
+        }
+
         LOGGER.debug("Attempting to resolve component for {} using repositories {}", identifier, repositoryNames);
 
         List<Throwable> errors = new ArrayList<Throwable>();
@@ -96,7 +113,11 @@ public class RepositoryChainComponentMetaDataResolver implements ComponentMetaDa
                 LOGGER.debug("Discarding resolve failure.", error);
             }
 
-            result.resolved(metaDataFactory.transform(latestResolved));
+            ModuleComponentResolveMetadata metadata = metaDataFactory.transform(latestResolved);
+            if (resolvedComponents != null) {
+                resolvedComponents.componentResolved(identifier, componentOverrideMetadata, metadata);
+            }
+            result.resolved(metadata);
             return;
         }
         if (!errors.isEmpty()) {
@@ -29,19 +29,30 @@ import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionS
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
 import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult;
 
+import javax.annotation.Nullable;
+
 public class RepositoryChainDependencyToComponentIdResolver implements DependencyToComponentIdResolver {
     private final DynamicVersionResolver dynamicRevisionResolver;
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
     private final VersionSelectorScheme versionSelectorScheme;
+    private final ResolvedComponentCache resolvedComponents;
 
     public RepositoryChainDependencyToComponentIdResolver(VersionedComponentChooser componentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, ImmutableModuleIdentifierFactory moduleIdentifierFactory, VersionSelectorScheme versionSelectorScheme) {
+        this(componentChooser, metaDataFactory, moduleIdentifierFactory, versionSelectorScheme, null, null);
+    }
+
+    RepositoryChainDependencyToComponentIdResolver(VersionedComponentChooser componentChooser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, ImmutableModuleIdentifierFactory moduleIdentifierFactory, VersionSelectorScheme versionSelectorScheme, @Nullable ResolvedComponentCache resolvedComponents, @Nullable BuildOperationExecutor buildOperationExecutor) {
         this.moduleIdentifierFactory = moduleIdentifierFactory;
         this.versionSelectorScheme = versionSelectorScheme;
-        this.dynamicRevisionResolver = new DynamicVersionResolver(componentChooser, metaDataFactory);
+        this.resolvedComponents = resolvedComponents;
+        this.dynamicRevisionResolver = new DynamicVersionResolver(componentChooser, metaDataFactory, buildOperationExecutor);
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -56,7 +67,7 @@ public class RepositoryChainDependencyToComponentIdResolver implements Dependenc
             ResolvedVersionConstraint resolvedVersionConstraint = new DefaultResolvedVersionConstraint(raw, versionSelectorScheme);
             VersionSelector preferredSelector = resolvedVersionConstraint.getPreferredSelector();
             if (preferredSelector.isDynamic()) {
-                dynamicRevisionResolver.resolve(dependency, preferredSelector, result);
+                resolveDynamic(dependency, module, preferredSelector, result);
             } else {
                 String version = raw.getPreferredVersion();
                 DefaultModuleComponentIdentifier id = new DefaultModuleComponentIdentifier(module.getGroup(), module.getModule(), version);
@@ -69,4 +80,18 @@ public class RepositoryChainDependencyToComponentIdResolver implements Dependenc
         }
     }
 
+    private void resolveDynamic(DependencyMetadata dependency, ModuleComponentSelector selector, VersionSelector preferredSelector, BuildableComponentIdResolveResult result) {
+        ComponentOverrideMetadata overrideMetadata = DefaultComponentOverrideMetadata.forDependency(dependency);
+        if (resolvedComponents != null) {
+            ModuleComponentResolveMetadata selected = resolvedComponents.getDynamicSelection(selector, overrideMetadata);
+            if (selected != null) {
+                result.resolved(selected);
+                return;
+            }
+        }
+        dynamicRevisionResolver.resolve(dependency, preferredSelector, result);
+        if (resolvedComponents != null && result.hasResult() && result.getFailure() == null) {
+            resolvedComponents.dynamicSelectionResolved(selector, overrideMetadata, (ModuleComponentResolveMetadata) result.getMetaData());
+        }
+    }
 }
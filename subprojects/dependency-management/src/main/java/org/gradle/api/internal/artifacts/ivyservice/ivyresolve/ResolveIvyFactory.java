@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.artifacts.cache.ResolutionRules;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
@@ -37,6 +39,7 @@ import org.gradle.internal.component.model.ComponentOverrideMetadata;
 import org.gradle.internal.component.model.ComponentResolveMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
 import org.gradle.internal.component.model.ModuleSource;
+import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.resolve.resolver.ArtifactResolver;
 import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
 import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
@@ -48,7 +51,10 @@ import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
 import org.gradle.internal.resource.cached.CachedArtifactIndex;
 import org.gradle.util.BuildCommencedTimeProvider;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public class ResolveIvyFactory {
     private final ModuleVersionsCache moduleVersionsCache;
@@ -62,12 +68,15 @@ public class ResolveIvyFactory {
     private final VersionComparator versionComparator;
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
     private final RepositoryBlacklister repositoryBlacklister;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final Map<ResolvedComponentsKey, ResolvedComponentCache> resolvedComponents = Maps.newConcurrentMap();
 
     public ResolveIvyFactory(ModuleVersionsCache moduleVersionsCache, ModuleMetaDataCache moduleMetaDataCache, ModuleArtifactsCache moduleArtifactsCache,
                              CachedArtifactIndex artifactAtRepositoryCachedResolutionIndex,
                              StartParameterResolutionOverride startParameterResolutionOverride,
                              BuildCommencedTimeProvider timeProvider, InMemoryCachedRepositoryFactory inMemoryCache, VersionSelectorScheme versionSelectorScheme,
-                             VersionComparator versionComparator, ImmutableModuleIdentifierFactory moduleIdentifierFactory, RepositoryBlacklister repositoryBlacklister) {
+                             VersionComparator versionComparator, ImmutableModuleIdentifierFactory moduleIdentifierFactory, RepositoryBlacklister repositoryBlacklister,
+                             BuildOperationExecutor buildOperationExecutor) {
         this.moduleVersionsCache = moduleVersionsCache;
         this.moduleMetaDataCache = moduleMetaDataCache;
         this.moduleArtifactsCache = moduleArtifactsCache;
@@ -79,6 +88,7 @@ public class ResolveIvyFactory {
         this.versionComparator = versionComparator;
         this.moduleIdentifierFactory = moduleIdentifierFactory;
         this.repositoryBlacklister = repositoryBlacklister;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public ComponentResolvers create(ResolutionStrategyInternal resolutionStrategy,
@@ -93,9 +103,9 @@ public class ResolveIvyFactory {
 
         startParameterResolutionOverride.addResolutionRules(resolutionRules);
 
-        UserResolverChain moduleResolver = new UserResolverChain(versionSelectorScheme, versionComparator, resolutionStrategy.getComponentSelection(), moduleIdentifierFactory);
         ParentModuleLookupResolver parentModuleResolver = new ParentModuleLookupResolver(versionSelectorScheme, versionComparator, moduleIdentifierFactory);
 
+        List<ModuleComponentRepository> moduleComponentRepositories = Lists.newArrayListWithCapacity(repositories.size());
         for (ResolutionAwareRepository repository : repositories) {
             ConfiguredModuleComponentRepository baseRepository = repository.createResolver();
 
@@ -118,13 +128,72 @@ public class ResolveIvyFactory {
             moduleComponentRepository = inMemoryCache.cached(moduleComponentRepository);
             moduleComponentRepository = new ErrorHandlingModuleComponentRepository(moduleComponentRepository, repositoryBlacklister);
 
-            moduleResolver.add(moduleComponentRepository);
+            moduleComponentRepositories.add(moduleComponentRepository);
             parentModuleResolver.add(moduleComponentRepository);
         }
 
+        ResolvedComponentCache resolvedComponents = getResolvedComponents(resolutionStrategy, moduleComponentRepositories, metadataProcessor);
+        UserResolverChain moduleResolver = new UserResolverChain(versionSelectorScheme, versionComparator, resolutionStrategy.getComponentSelection(), moduleIdentifierFactory, resolvedComponents, buildOperationExecutor);
+        for (ModuleComponentRepository moduleComponentRepository : moduleComponentRepositories) {
+            moduleResolver.add(moduleComponentRepository);
+        }
         return moduleResolver;
     }
 
+    /**
+     * Returns the components already resolved by other resolutions that use the same repositories and metadata rules, so that
+     * related configurations, within a project or across projects, do not repeat selector and metadata resolution.
+     * Results are only shared when they would otherwise be served from the in-memory repository caches anyway, and the
+     * resolution does not use component selection rules.
+     */
+    @Nullable
+    private ResolvedComponentCache getResolvedComponents(ResolutionStrategyInternal resolutionStrategy, List<ModuleComponentRepository> repositories, ComponentMetadataProcessor metadataProcessor) {
+        if ("false".equalsIgnoreCase(System.getProperty(InMemoryCachedRepositoryFactory.TOGGLE_PROPERTY))) {
+            return null;
+        }
+        if (!resolutionStrategy.getComponentSelection().getRules().isEmpty()) {
+            return null;
+        }
+        List<String> repositoryIds = Lists.newArrayListWithCapacity(repositories.size());
+        for (ModuleComponentRepository repository : repositories) {
+            repositoryIds.add(repository.getId());
+        }
+        ResolvedComponentsKey key = new ResolvedComponentsKey(repositoryIds, metadataProcessor);
+        ResolvedComponentCache cache = resolvedComponents.get(key);
+        if (cache == null) {
+            cache = new ResolvedComponentCache();
+            resolvedComponents.put(key, cache);
+        }
+        return cache;
+    }
+
+    private static class ResolvedComponentsKey {
+        private final List<String> repositoryIds;
+        private final ComponentMetadataProcessor metadataProcessor;
+
+        ResolvedComponentsKey(List<String> repositoryIds, ComponentMetadataProcessor metadataProcessor) {
+            this.repositoryIds = repositoryIds;
+            this.metadataProcessor = metadataProcessor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ResolvedComponentsKey other = (ResolvedComponentsKey) o;
+            return repositoryIds.equals(other.repositoryIds) && metadataProcessor == other.metadataProcessor;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * repositoryIds.hashCode() + System.identityHashCode(metadataProcessor);
+        }
+    }
+
     /**
      * Provides access to the top-level resolver chain for looking up parent modules when parsing module descriptor files.
      */
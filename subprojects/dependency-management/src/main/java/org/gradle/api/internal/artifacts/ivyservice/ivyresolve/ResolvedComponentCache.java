@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import com.google.common.collect.Maps;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+
+import java.util.Map;
+
+/**
+ * Remembers the components resolved by a repository chain, so that resolving another configuration against the same repositories
+ * reuses the selected components and their metadata instead of repeating the lookups. Only successful results are kept.
+ */
+class ResolvedComponentCache {
+    private final Map<ModuleComponentSelector, ModuleComponentResolveMetadata> dynamicSelections = Maps.newConcurrentMap();
+    private final Map<ModuleComponentIdentifier, ModuleComponentResolveMetadata> components = Maps.newConcurrentMap();
+
+    ModuleComponentResolveMetadata getDynamicSelection(ModuleComponentSelector selector, ComponentOverrideMetadata overrideMetadata) {
+        if (!isCacheable(overrideMetadata)) {
+            return null;
+        }
+        return dynamicSelections.get(selector);
+    }
+
+    void dynamicSelectionResolved(ModuleComponentSelector selector, ComponentOverrideMetadata overrideMetadata, ModuleComponentResolveMetadata metadata) {
+        if (isCacheable(overrideMetadata) && !metadata.isMissing()) {
+            dynamicSelections.put(selector, metadata);
+            components.put(metadata.getComponentId(), metadata);
+        }
+    }
+
+    ModuleComponentResolveMetadata getComponent(ModuleComponentIdentifier id, ComponentOverrideMetadata overrideMetadata) {
+        if (!isCacheable(overrideMetadata)) {
+            return null;
+        }
+        return components.get(id);
+    }
+
+    void componentResolved(ModuleComponentIdentifier id, ComponentOverrideMetadata overrideMetadata, ModuleComponentResolveMetadata metadata) {
+        if (isCacheable(overrideMetadata) && !metadata.isMissing()) {
+            components.put(id, metadata);
+        }
+    }
+
+    /**
+     * Client modules, explicit artifacts and changing requests produce metadata specific to the requesting dependency.
+     */
+    private static boolean isCacheable(ComponentOverrideMetadata overrideMetadata) {
+        return overrideMetadata.getClientModule() == null && overrideMetadata.getArtifacts().isEmpty() && !overrideMetadata.isChanging();
+    }
+}
@@ -22,11 +22,14 @@ import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.resolve.resolver.ArtifactResolver;
 import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
 import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
 import org.gradle.internal.resolve.resolver.OriginArtifactSelector;
 
+import javax.annotation.Nullable;
+
 public class UserResolverChain implements ComponentResolvers {
     private final RepositoryChainDependencyToComponentIdResolver componentIdResolver;
     private final RepositoryChainComponentMetaDataResolver componentResolver;
@@ -37,11 +40,20 @@ public class UserResolverChain implements ComponentResolvers {
                              VersionComparator versionComparator,
                              ComponentSelectionRulesInternal componentSelectionRules,
                              ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
+        this(versionSelectorScheme, versionComparator, componentSelectionRules, moduleIdentifierFactory, null, null);
+    }
+
+    UserResolverChain(VersionSelectorScheme versionSelectorScheme,
+                      VersionComparator versionComparator,
+                      ComponentSelectionRulesInternal componentSelectionRules,
+                      ImmutableModuleIdentifierFactory moduleIdentifierFactory,
+                      @Nullable ResolvedComponentCache resolvedComponents,
+                      @Nullable BuildOperationExecutor buildOperationExecutor) {
         this.componentSelectionRules = componentSelectionRules;
         VersionedComponentChooser componentChooser = new DefaultVersionedComponentChooser(versionComparator, componentSelectionRules);
         ModuleTransformer metaDataFactory = new ModuleTransformer();
-        componentIdResolver = new RepositoryChainDependencyToComponentIdResolver(componentChooser, metaDataFactory, moduleIdentifierFactory, versionSelectorScheme);
-        componentResolver = new RepositoryChainComponentMetaDataResolver(componentChooser, metaDataFactory);
+        componentIdResolver = new RepositoryChainDependencyToComponentIdResolver(componentChooser, metaDataFactory, moduleIdentifierFactory, versionSelectorScheme, resolvedComponents, buildOperationExecutor);
+        componentResolver = new RepositoryChainComponentMetaDataResolver(componentChooser, metaDataFactory, resolvedComponents);
         artifactResolver = new RepositoryChainArtifactResolver();
     }
 
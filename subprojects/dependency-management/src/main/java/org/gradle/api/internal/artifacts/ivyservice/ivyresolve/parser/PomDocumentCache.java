@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.w3c.dom.Document;
+
+/**
+ * Retains parsed parent and imported POMs across builds, keyed by the hash of their content, so that a POM shared by many modules is parsed once.
+ *
+ * <p>Callers receive a copy of the retained document, as DOM instances are mutable and not safe to traverse concurrently.</p>
+ */
+@ThreadSafe
+public class PomDocumentCache {
+    private final CrossBuildInMemoryCache<HashValue, Document> documents;
+
+    public PomDocumentCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.documents = cacheFactory.newCache();
+    }
+
+    public Document getDocument(LocallyAvailableExternalResource resource) {
+        HashValue contentHash = HashUtil.sha1(resource.getFile());
+        Document document = documents.get(contentHash);
+        if (document == null) {
+            document = PomReader.parsePom(resource);
+            documents.put(contentHash, document);
+        }
+        synchronized (document) {
+            return (Document) document.cloneNode(true);
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.primitives.Longs;
 import org.gradle.api.Transformer;
 
@@ -25,11 +27,24 @@ import java.util.List;
 public class VersionParser implements Transformer<Version, String> {
     public static final VersionParser INSTANCE = new VersionParser();
 
+    // The same version strings are parsed over and over, when matching selectors against the versions listed by a repository and during conflict resolution
+    private static final int MAX_CACHED_VERSIONS = 10000;
+    private final Cache<String, Version> cache = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_VERSIONS).build();
+
     public VersionParser() {
     }
 
     @Override
     public Version transform(String original) {
+        Version version = cache.getIfPresent(original);
+        if (version == null) {
+            version = parse(original);
+            cache.put(original, version);
+        }
+        return version;
+    }
+
+    private static Version parse(String original) {
         List<String> parts = new ArrayList<String>();
         boolean digit = false;
         int startPart = 0;
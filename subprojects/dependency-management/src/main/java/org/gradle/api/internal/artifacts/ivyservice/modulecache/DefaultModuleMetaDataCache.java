@@ -36,6 +36,8 @@ import org.gradle.util.BuildCommencedTimeProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+
 public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultModuleMetaDataCache.class);
 
@@ -45,11 +47,12 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     private final ModuleMetadataStore moduleMetadataStore;
     private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache;
 
-    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ImmutableAttributesFactory attributesFactory, NamedObjectInstantiator instantiator) {
+    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ImmutableAttributesFactory attributesFactory, NamedObjectInstantiator instantiator, InMemoryModuleDescriptorCache descriptorCache) {
         this.timeProvider = timeProvider;
         this.cacheLockingManager = cacheLockingManager;
 
-        moduleMetadataStore = new ModuleMetadataStore(new DefaultPathKeyFileStore(artifactCacheMetaData.getMetaDataStoreDirectory()), new ModuleMetadataSerializer(attributesFactory, instantiator), moduleIdentifierFactory);
+        File metaDataStoreDirectory = artifactCacheMetaData.getMetaDataStoreDirectory();
+        moduleMetadataStore = new ModuleMetadataStore(new DefaultPathKeyFileStore(metaDataStoreDirectory), new ModuleMetadataSerializer(attributesFactory, instantiator), moduleIdentifierFactory, metaDataStoreDirectory, descriptorCache);
     }
 
     private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> getCache() {
@@ -76,7 +79,7 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
                 if (entry.isMissing()) {
                     return new DefaultCachedMetaData(entry, null, timeProvider);
                 }
-                MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
+                MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key, entry.createTimestamp);
                 if (metadata == null) {
                     // Descriptor file has been deleted - ignore the entry
                     cache.remove(key);
@@ -100,8 +103,8 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
         return cacheLockingManager.useCache(new Factory<CachedMetaData>() {
             @Override
             public CachedMetaData create() {
-                moduleMetadataStore.putModuleDescriptor(key, metadata);
                 ModuleMetadataCacheEntry entry = createEntry(metadata);
+                moduleMetadataStore.putModuleDescriptor(key, metadata, entry.createTimestamp);
                 getCache().put(key, entry);
                 return new DefaultCachedMetaData(entry, metadata, timeProvider);
             }
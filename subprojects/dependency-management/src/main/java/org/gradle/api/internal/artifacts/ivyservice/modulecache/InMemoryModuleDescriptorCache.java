@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+
+/**
+ * Retains the serialized content of module descriptors across builds in the same process, so that a descriptor that has already been read or
+ * written does not need to be loaded from the file store again.
+ *
+ * <p>Each entry is tagged with the creation timestamp of the 'module-metadata' index entry that refers to it. An entry is only used when this
+ * timestamp still matches the index, which is updated in the same cache lock as the descriptor file, so a descriptor rewritten by another
+ * process is read again from disk.</p>
+ */
+@ThreadSafe
+public class InMemoryModuleDescriptorCache {
+    private final CrossBuildInMemoryCache<File, CachedDescriptor> descriptors;
+
+    public InMemoryModuleDescriptorCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.descriptors = cacheFactory.newCache();
+    }
+
+    /**
+     * Returns the content of the given descriptor file, or null when not known or when recorded for a different index entry.
+     */
+    @Nullable
+    public byte[] get(File descriptorFile, long createTimestamp) {
+        CachedDescriptor descriptor = descriptors.get(descriptorFile);
+        if (descriptor == null || descriptor.createTimestamp != createTimestamp) {
+            return null;
+        }
+        return descriptor.content;
+    }
+
+    public void put(File descriptorFile, long createTimestamp, byte[] content) {
+        descriptors.put(descriptorFile, new CachedDescriptor(createTimestamp, content));
+    }
+
+    private static class CachedDescriptor {
+        private final long createTimestamp;
+        private final byte[] content;
+
+        CachedDescriptor(long createTimestamp, byte[] content) {
+            this.createTimestamp = createTimestamp;
+            this.content = content;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.modulecache;
 
+import com.google.common.io.Files;
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
@@ -26,20 +27,35 @@ import org.gradle.internal.resource.local.PathKeyFileStore;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
 
 public class ModuleMetadataStore {
 
     private final PathKeyFileStore metaDataStore;
     private final ModuleMetadataSerializer moduleMetadataSerializer;
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+    private final File baseDir;
+    private final InMemoryModuleDescriptorCache descriptorCache;
 
     public ModuleMetadataStore(PathKeyFileStore metaDataStore, ModuleMetadataSerializer moduleMetadataSerializer, ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
+        this(metaDataStore, moduleMetadataSerializer, moduleIdentifierFactory, null, null);
+    }
+
+    /**
+     * Creates a store that keeps the content of the descriptors it reads and writes in the given in-memory cache, keyed by their location in {@code baseDir}.
+     */
+    public ModuleMetadataStore(PathKeyFileStore metaDataStore, ModuleMetadataSerializer moduleMetadataSerializer, ImmutableModuleIdentifierFactory moduleIdentifierFactory, @Nullable File baseDir, @Nullable InMemoryModuleDescriptorCache descriptorCache) {
         this.metaDataStore = metaDataStore;
         this.moduleMetadataSerializer = moduleMetadataSerializer;
         this.moduleIdentifierFactory = moduleIdentifierFactory;
+        this.baseDir = baseDir;
+        this.descriptorCache = descriptorCache;
     }
 
     public MutableModuleComponentResolveMetadata getModuleDescriptor(ModuleComponentAtRepositoryKey component) {
@@ -47,12 +63,7 @@ public class ModuleMetadataStore {
         final LocallyAvailableResource resource = metaDataStore.get(filePath);
         if (resource != null) {
             try {
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(resource.getFile()));
-                try {
-                    return moduleMetadataSerializer.read(decoder, moduleIdentifierFactory);
-                } finally {
-                    decoder.close();
-                }
+                return read(new FileInputStream(resource.getFile()));
             } catch (Exception e) {
                 throw new RuntimeException("Could not load module metadata from " + resource.getDisplayName(), e);
             }
@@ -60,6 +71,44 @@ public class ModuleMetadataStore {
         return null;
     }
 
+    /**
+     * Loads the descriptor recorded by the index entry created at the given timestamp, reusing the content seen by an earlier build when the entry has not changed since.
+     */
+    public MutableModuleComponentResolveMetadata getModuleDescriptor(ModuleComponentAtRepositoryKey component, long createTimestamp) {
+        if (descriptorCache == null) {
+            return getModuleDescriptor(component);
+        }
+        String filePath = getFilePath(component);
+        File descriptorFile = new File(baseDir, filePath);
+        byte[] content = descriptorCache.get(descriptorFile, createTimestamp);
+        if (content == null) {
+            LocallyAvailableResource resource = metaDataStore.get(filePath);
+            if (resource == null) {
+                return null;
+            }
+            try {
+                content = Files.toByteArray(resource.getFile());
+            } catch (Exception e) {
+                throw new RuntimeException("Could not load module metadata from " + resource.getDisplayName(), e);
+            }
+            descriptorCache.put(descriptorFile, createTimestamp, content);
+        }
+        try {
+            return read(new ByteArrayInputStream(content));
+        } catch (Exception e) {
+            throw new RuntimeException("Could not load module metadata from " + descriptorFile, e);
+        }
+    }
+
+    private MutableModuleComponentResolveMetadata read(InputStream inputStream) throws Exception {
+        KryoBackedDecoder decoder = new KryoBackedDecoder(inputStream);
+        try {
+            return moduleMetadataSerializer.read(decoder, moduleIdentifierFactory);
+        } finally {
+            decoder.close();
+        }
+    }
+
     public LocallyAvailableResource putModuleDescriptor(ModuleComponentAtRepositoryKey component, final ModuleComponentResolveMetadata metadata) {
         String filePath = getFilePath(component);
         return metaDataStore.add(filePath, new Action<File>() {
@@ -78,6 +127,37 @@ public class ModuleMetadataStore {
         });
     }
 
+    /**
+     * Writes the descriptor for an index entry created at the given timestamp, retaining its content in memory for later builds.
+     */
+    public LocallyAvailableResource putModuleDescriptor(ModuleComponentAtRepositoryKey component, final ModuleComponentResolveMetadata metadata, long createTimestamp) {
+        if (descriptorCache == null) {
+            return putModuleDescriptor(component, metadata);
+        }
+        String filePath = getFilePath(component);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+        try {
+            moduleMetadataSerializer.write(encoder, metadata);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            encoder.close();
+        }
+        final byte[] content = outputStream.toByteArray();
+        LocallyAvailableResource resource = metaDataStore.add(filePath, new Action<File>() {
+            public void execute(File moduleDescriptorFile) {
+                try {
+                    Files.write(content, moduleDescriptorFile);
+                } catch (Exception e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        });
+        descriptorCache.put(new File(baseDir, filePath), createTimestamp, content);
+        return resource;
+    }
+
     private String getFilePath(ModuleComponentAtRepositoryKey componentId) {
         ModuleComponentIdentifier moduleComponentIdentifier = componentId.getComponentId();
         return moduleComponentIdentifier.getGroup() + "/" + moduleComponentIdentifier.getModule() + "/" + moduleComponentIdentifier.getVersion() + "/" + componentId.getRepositoryId() + "/descriptor.bin";
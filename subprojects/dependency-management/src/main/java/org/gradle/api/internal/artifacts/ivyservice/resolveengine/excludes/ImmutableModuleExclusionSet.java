@@ -22,6 +22,7 @@ import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.internal.Cast;
 import org.gradle.internal.component.model.IvyArtifactName;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
@@ -30,6 +31,7 @@ final class ImmutableModuleExclusionSet implements Set<AbstractModuleExclusion>
     private final Set<AbstractModuleExclusion> delegate;
 
     final AbstractModuleExclusion[] elements;
+    private final BitSet ids;
     private final int hashCode;
 
     // the following fields are used as optimizations, to avoid iterating on the whole set of exclusions
@@ -37,12 +39,30 @@ final class ImmutableModuleExclusionSet implements Set<AbstractModuleExclusion>
     private ImmutableList<AbstractModuleExclusion> otherExcludes;
     private ImmutableList<AbstractModuleExclusion> artifactExcludes;
 
-    ImmutableModuleExclusionSet(ImmutableSet<AbstractModuleExclusion> delegate) {
+    /**
+     * @param ids the ids assigned by {@link ModuleExclusions} to the elements of this set.
+     */
+    ImmutableModuleExclusionSet(ImmutableSet<AbstractModuleExclusion> delegate, BitSet ids) {
         this.delegate = delegate;
         this.elements = delegate.toArray(new AbstractModuleExclusion[0]);
+        this.ids = ids;
         this.hashCode = delegate.hashCode();
     }
 
+    /**
+     * Returns true if this set contains the exclusion with the given id.
+     */
+    boolean containsId(int id) {
+        return ids.get(id);
+    }
+
+    /**
+     * Returns true if this set contains exactly the same exclusions as the given set, regardless of order.
+     */
+    boolean hasSameIdsAs(ImmutableModuleExclusionSet other) {
+        return ids.equals(other.ids);
+    }
+
     private void precomputeCaches() {
         if (excludedModules != null) {
             return;
@@ -27,7 +27,6 @@ import org.gradle.internal.component.model.Exclude;
 import org.gradle.internal.component.model.IvyArtifactName;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
@@ -58,15 +57,16 @@ public class ModuleExclusions {
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
 
     private final Map<ImmutableList<Exclude>, Map<ImmutableSet<String>, ModuleExclusion>> cachedExcludes = Maps.newConcurrentMap();
-    private final Map<MergeOperation, AbstractModuleExclusion> mergeCache = Maps.newConcurrentMap();
+    private final Map<IntersectionExclusion, Map<IntersectionExclusion, AbstractModuleExclusion>> mergeCache = Maps.newConcurrentMap();
     private final Map<ImmutableList<Exclude>, AbstractModuleExclusion> excludeAnyCache = Maps.newConcurrentMap();
     private final Map<ImmutableSet<AbstractModuleExclusion>, IntersectionExclusion> intersectionCache = Maps.newConcurrentMap();
-    private final Map<AbstractModuleExclusion[], Map<AbstractModuleExclusion[], MergeOperation>> mergeOperationCache = Maps.newIdentityHashMap();
     private final Map<ModuleIdentifier, ModuleIdExcludeSpec> moduleIdSpecs = Maps.newConcurrentMap();
     private final Map<String, ModuleNameExcludeSpec> moduleNameSpecs = Maps.newConcurrentMap();
     private final Map<String, GroupNameExcludeSpec> groupNameSpecs = Maps.newConcurrentMap();
 
-    private final Object mergeOperationLock = new Object();
+    // Each distinct exclusion is assigned a dense id, so that the contents of intersections can be compared as bit sets
+    private final Map<AbstractModuleExclusion, Integer> exclusionIds = Maps.newConcurrentMap();
+    private final Object exclusionIdLock = new Object();
 
     public ModuleExclusions(ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
         this.moduleIdentifierFactory = moduleIdentifierFactory;
@@ -98,12 +98,34 @@ public class ModuleExclusions {
     private IntersectionExclusion asIntersection(ImmutableSet<AbstractModuleExclusion> excludes) {
         IntersectionExclusion cached = intersectionCache.get(excludes);
         if (cached == null) {
-            cached = new IntersectionExclusion(new ImmutableModuleExclusionSet(excludes));
+            cached = new IntersectionExclusion(new ImmutableModuleExclusionSet(excludes, idsOf(excludes)));
             intersectionCache.put(excludes, cached);
         }
         return cached;
     }
 
+    private BitSet idsOf(ImmutableSet<AbstractModuleExclusion> excludes) {
+        BitSet ids = new BitSet();
+        for (AbstractModuleExclusion exclude : excludes) {
+            ids.set(idOf(exclude));
+        }
+        return ids;
+    }
+
+    private int idOf(AbstractModuleExclusion exclusion) {
+        Integer id = exclusionIds.get(exclusion);
+        if (id == null) {
+            synchronized (exclusionIdLock) {
+                id = exclusionIds.get(exclusion);
+                if (id == null) {
+                    id = exclusionIds.size();
+                    exclusionIds.put(exclusion, id);
+                }
+            }
+        }
+        return id;
+    }
+
     /**
      * Returns a spec that excludes nothing.
      */
@@ -213,15 +235,15 @@ public class ModuleExclusions {
             return one;
         }
 
-        if (one instanceof IntersectionExclusion && ((IntersectionExclusion) one).getFilters().contains(two)) {
+        AbstractModuleExclusion aOne = (AbstractModuleExclusion) one;
+        AbstractModuleExclusion aTwo = (AbstractModuleExclusion) two;
+
+        if (one instanceof IntersectionExclusion && ((IntersectionExclusion) one).getFilters().containsId(idOf(aTwo))) {
             return one;
-        } else if (two instanceof IntersectionExclusion && ((IntersectionExclusion) two).getFilters().contains(one)) {
+        } else if (two instanceof IntersectionExclusion && ((IntersectionExclusion) two).getFilters().containsId(idOf(aOne))) {
             return two;
         }
 
-        AbstractModuleExclusion aOne = (AbstractModuleExclusion) one;
-        AbstractModuleExclusion aTwo = (AbstractModuleExclusion) two;
-
         List<AbstractModuleExclusion> builder = Lists.newArrayListWithExpectedSize(estimateSize(aOne) + estimateSize(aTwo));
 
         aOne.unpackIntersection(builder);
@@ -297,41 +319,26 @@ public class ModuleExclusions {
             return one;
         }
         if (one.canMerge() && other.canMerge()) {
-            AbstractModuleExclusion[] oneFilters = one.getFilters().elements;
-            AbstractModuleExclusion[] otherFilters = other.getFilters().elements;
-            if (Arrays.equals(oneFilters, otherFilters)) {
+            if (one.getFilters().hasSameIdsAs(other.getFilters())) {
                 return one;
             }
 
-            MergeOperation merge = mergeOperation(oneFilters, otherFilters);
-            AbstractModuleExclusion exclusion = mergeCache.get(merge);
-            if (exclusion != null) {
-                return exclusion;
-            }
-            return mergeAndCacheResult(merge, oneFilters, otherFilters);
-        }
-        return null;
-    }
-
-    private MergeOperation mergeOperation(AbstractModuleExclusion[] one, AbstractModuleExclusion[] two) {
-        synchronized (mergeOperationLock) {
-            Map<AbstractModuleExclusion[], MergeOperation> oneMap = mergeOperationCache.get(one);
-            if (oneMap == null) {
-                oneMap = Maps.newIdentityHashMap();
-                mergeOperationCache.put(one, oneMap);
-
+            Map<IntersectionExclusion, AbstractModuleExclusion> mergedWithOne = mergeCache.get(one);
+            if (mergedWithOne == null) {
+                mergedWithOne = Maps.newConcurrentMap();
+                mergeCache.put(one, mergedWithOne);
             }
-            MergeOperation mergeOperation = oneMap.get(two);
-            if (mergeOperation != null) {
-                return mergeOperation;
+            AbstractModuleExclusion exclusion = mergedWithOne.get(other);
+            if (exclusion == null) {
+                exclusion = merge(one.getFilters().elements, other.getFilters().elements);
+                mergedWithOne.put(other, exclusion);
             }
-            mergeOperation = new MergeOperation(one, two);
-            oneMap.put(two, mergeOperation);
-            return mergeOperation;
+            return exclusion;
         }
+        return null;
     }
 
-    private AbstractModuleExclusion mergeAndCacheResult(MergeOperation merge, AbstractModuleExclusion[] oneFilters, AbstractModuleExclusion[] otherFilters) {
+    private AbstractModuleExclusion merge(AbstractModuleExclusion[] oneFilters, AbstractModuleExclusion[] otherFilters) {
         AbstractModuleExclusion exclusion; // Merge the exclude rules from both specs into a single union spec.
         final BitSet remaining = new BitSet(otherFilters.length);
         remaining.set(0, otherFilters.length, true);
@@ -351,7 +358,6 @@ public class ModuleExclusions {
         } else {
             exclusion = asIntersection(ImmutableSet.copyOf(merged));
         }
-        mergeCache.put(merge, exclusion);
         return exclusion;
     }
 
@@ -438,41 +444,6 @@ public class ModuleExclusions {
         }
     }
 
-    private static final class MergeOperation {
-        private final AbstractModuleExclusion[] one;
-        private final AbstractModuleExclusion[] two;
-        private final int hashCode;
-
-
-        private MergeOperation(AbstractModuleExclusion[] one, AbstractModuleExclusion[] two) {
-            this.one = one;
-            this.two = two;
-            this.hashCode = 31 * Arrays.hashCode(one) + Arrays.hashCode(two);
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-
-            MergeOperation that = (MergeOperation) o;
-
-            if (!Arrays.equals(one, that.one)) {
-                return false;
-            }
-            return Arrays.equals(two, that.two);
-        }
-
-        @Override
-        public int hashCode() {
-            return hashCode;
-        }
-    }
-
     private static final class MergeSet extends HashSet<AbstractModuleExclusion> {
         private final BitSet remaining;
         private int idx;
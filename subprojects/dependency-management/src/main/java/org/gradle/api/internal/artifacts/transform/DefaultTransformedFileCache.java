@@ -17,7 +17,6 @@
 package org.gradle.api.internal.artifacts.transform;
 
 import com.google.common.collect.ImmutableList;
-import org.gradle.api.Action;
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData;
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
@@ -32,30 +31,36 @@ import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.caching.internal.DefaultBuildCacheHasher;
 import org.gradle.initialization.RootBuildLifecycleListener;
 import org.gradle.internal.Factory;
-import org.gradle.internal.UncheckedException;
+import org.gradle.internal.FileUtils;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.resource.local.DefaultPathKeyFileStore;
 import org.gradle.internal.resource.local.FileStore;
-import org.gradle.internal.resource.local.FileStoreAddActionException;
 import org.gradle.internal.serialize.BaseSerializerFactory;
 import org.gradle.internal.serialize.HashCodeSerializer;
 import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.internal.util.BiFunction;
+import org.gradle.util.GFileUtils;
 
 import java.io.File;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_META_DATA;
 import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_STORE;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultTransformedFileCache implements TransformedFileCache, Stoppable, RootBuildLifecycleListener {
+    // Temporary directories older than this were left behind by a process that crashed or was killed while running a transform
+    private static final long STALE_TEMP_DIR_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
     private final PersistentCache cache;
     private final PersistentIndexedCache<HashCode, List<File>> indexedCache;
     private final FileStore<String> fileStore;
+    private final File tempDirectory;
     private final ProducerGuard<HashCode> producing = ProducerGuard.adaptive();
     private final Map<HashCode, List<File>> resultHashToResult = new ConcurrentHashMap<HashCode, List<File>>();
     private final FileSystemSnapshotter fileSystemSnapshotter;
@@ -65,6 +70,7 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
         File transformsStoreDirectory = artifactCacheMetaData.getTransformsStoreDirectory();
         File filesOutputDirectory = new File(transformsStoreDirectory, TRANSFORMS_STORE.getKey());
         fileStore = new DefaultPathKeyFileStore(filesOutputDirectory);
+        tempDirectory = new File(transformsStoreDirectory, "tmp");
         cache = cacheRepository
                 .cache(transformsStoreDirectory)
                 .withCrossVersionCache(CacheBuilder.LockTarget.DefaultTarget)
@@ -75,6 +81,20 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
         PersistentIndexedCacheParameters<HashCode, List<File>> cacheParameters = new PersistentIndexedCacheParameters<HashCode, List<File>>(cacheName, new HashCodeSerializer(), new ListSerializer<File>(BaseSerializerFactory.FILE_SERIALIZER))
                 .cacheDecorator(cacheDecoratorFactory.decorator(1000, true));
         indexedCache = cache.createCache(cacheParameters);
+        deleteStaleTempDirs();
+    }
+
+    private void deleteStaleTempDirs() {
+        File[] tempDirs = tempDirectory.listFiles();
+        if (tempDirs == null) {
+            return;
+        }
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_DIR_AGE_MILLIS;
+        for (File tempDir : tempDirs) {
+            if (tempDir.lastModified() < staleBefore) {
+                GFileUtils.deleteQuietly(tempDir);
+            }
+        }
     }
 
     @Override
@@ -101,7 +121,7 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
         inputFileSnapshot.appendToHasher(hasher);
         final HashCode resultHash = hasher.hash();
 
-        // Apply locking so that only this process is writing to the file store and only a single thread is running this particular transform
+        // Apply locking so that only a single thread in this process is running this particular transform
         return producing.guardByKey(resultHash, new Factory<List<File>>() {
             @Override
             public List<File> create() {
@@ -113,34 +133,12 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
                 files = cache.withFileLock(new Factory<List<File>>() {
                     @Override
                     public List<File> create() {
-                        List<File> files = indexedCache.get(resultHash);
-                        if (files != null) {
-                            boolean allExist = true;
-                            for (File file : files) {
-                                if (!file.exists()) {
-                                    allExist = false;
-                                    break;
-                                }
-                            }
-                            if (allExist) {
-                                return files;
-                            }
-                            // Else, recreate outputs
-                        }
-
-                        // File store takes care of cleaning up on failure/crash
-                        String key = inputFile.getName() + "/" + resultHash;
-                        TransformAction action = new TransformAction(transformer, inputFile);
-                        try {
-                            fileStore.add(key, action);
-                        } catch (FileStoreAddActionException e) {
-                            throw UncheckedException.throwAsUncheckedException(e.getCause());
-                        }
-
-                        indexedCache.put(resultHash, action.result);
-                        return action.result;
+                        return findExistingResult(resultHash);
                     }
                 });
+                if (files == null) {
+                    files = transform(inputFile, resultHash, transformer);
+                }
 
                 resultHashToResult.put(resultHash, files);
                 return files;
@@ -148,20 +146,70 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
         });
     }
 
-    private static class TransformAction implements Action<File> {
-        private final BiFunction<List<File>, File, File> transformer;
-        private final File inputFile;
-        private ImmutableList<File> result;
-
-        TransformAction(BiFunction<List<File>, File, File> transformer, File inputFile) {
-            this.transformer = transformer;
-            this.inputFile = inputFile;
+    private List<File> findExistingResult(HashCode resultHash) {
+        List<File> files = indexedCache.get(resultHash);
+        if (files == null) {
+            return null;
+        }
+        for (File file : files) {
+            if (!file.exists()) {
+                // Recreate outputs
+                return null;
+            }
         }
+        return files;
+    }
 
-        @Override
-        public void execute(File outputDir) {
+    /**
+     * Runs the transform into a temporary directory without holding the cache lock, so that other processes can use the cache while the transform runs,
+     * then moves the outputs into the file store.
+     */
+    private List<File> transform(final File inputFile, final HashCode resultHash, BiFunction<List<File>, File, File> transformer) {
+        final File tempDir = new File(tempDirectory, inputFile.getName() + "-" + UUID.randomUUID());
+        try {
+            final File outputDir = new File(tempDir, "output");
             outputDir.mkdirs();
-            result = ImmutableList.copyOf(transformer.apply(inputFile, outputDir));
+            final List<File> result = transformer.apply(inputFile, outputDir);
+
+            return cache.withFileLock(new Factory<List<File>>() {
+                @Override
+                public List<File> create() {
+                    // Another process may have produced the same result in the meantime
+                    List<File> files = findExistingResult(resultHash);
+                    if (files != null) {
+                        return files;
+                    }
+                    // File store takes care of cleaning up on failure/crash
+                    String key = inputFile.getName() + "/" + resultHash;
+                    File storedDir = fileStore.move(key, outputDir).getFile();
+                    files = relocate(result, outputDir, storedDir);
+                    indexedCache.put(resultHash, files);
+                    return files;
+                }
+            });
+        } finally {
+            GFileUtils.deleteQuietly(tempDir);
+        }
+    }
+
+    /**
+     * Rebases the files under the given directory onto the target directory. Paths are compared in canonical form,
+     * so that results are relocated when the transform returns them through a different path, for example a symlink.
+     */
+    private static ImmutableList<File> relocate(List<File> files, File fromDir, File toDir) {
+        String fromPath = FileUtils.canonicalize(fromDir).getPath();
+        String fromPrefix = fromPath + File.separator;
+        ImmutableList.Builder<File> relocated = ImmutableList.builder();
+        for (File file : files) {
+            String path = FileUtils.canonicalize(file).getPath();
+            if (path.equals(fromPath)) {
+                relocated.add(toDir);
+            } else if (path.startsWith(fromPrefix)) {
+                relocated.add(new File(toDir, path.substring(fromPrefix.length())));
+            } else {
+                relocated.add(file);
+            }
         }
+        return relocated.build();
     }
 }
@@ -16,6 +16,7 @@
 package org.gradle.internal.resource.local.ivy;
 
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLayout;
 import org.gradle.api.internal.artifacts.mvnsettings.CannotLocateLocalMavenRepositoryException;
 import org.gradle.api.internal.artifacts.mvnsettings.LocalMavenRepositoryLocator;
 import org.gradle.api.internal.artifacts.repositories.resolver.IvyResourcePattern;
@@ -34,6 +35,7 @@ import org.gradle.internal.resource.local.LocallyAvailableResourceFinderSearchab
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.LinkedList;
 import java.util.List;
@@ -42,15 +44,22 @@ import java.util.Set;
 public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata>> {
     private static final Logger LOGGER = LoggerFactory.getLogger(LocallyAvailableResourceFinderFactory.class);
 
+    /**
+     * The location of another Gradle user home whose artifact file store is searched before downloading artifacts.
+     */
+    public static final String SHARED_USER_HOME_PROPERTY = "org.gradle.dependency.sharedUserHome";
+
     private final File rootCachesDirectory;
     private final LocalMavenRepositoryLocator localMavenRepositoryLocator;
     private final FileStoreSearcher<ModuleComponentArtifactIdentifier> fileStore;
+    private final File sharedUserHome;
 
     public LocallyAvailableResourceFinderFactory(
-            ArtifactCacheMetaData artifactCacheMetaData, LocalMavenRepositoryLocator localMavenRepositoryLocator, FileStoreSearcher<ModuleComponentArtifactIdentifier> fileStore) {
+            ArtifactCacheMetaData artifactCacheMetaData, LocalMavenRepositoryLocator localMavenRepositoryLocator, FileStoreSearcher<ModuleComponentArtifactIdentifier> fileStore, @Nullable File sharedUserHome) {
         this.rootCachesDirectory = artifactCacheMetaData.getCacheDir().getParentFile();
         this.localMavenRepositoryLocator = localMavenRepositoryLocator;
         this.fileStore = fileStore;
+        this.sharedUserHome = sharedUserHome;
     }
 
     public LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> create() {
@@ -66,6 +75,16 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
             }
         }));
 
+        // A shared Gradle user home, using the same filestore layout
+        if (sharedUserHome != null) {
+            File sharedFileStore = CacheLayout.FILE_STORE.getPath(CacheLayout.ROOT.getPath(new File(sharedUserHome, "caches")));
+            if (sharedFileStore.isDirectory()) {
+                finders.add(new SharedFileStoreResourceFinder(sharedFileStore));
+            } else {
+                LOGGER.debug("Ignoring shared artifact file store {} as it does not exist.", sharedFileStore);
+            }
+        }
+
         // 1.8
         addForPattern(finders, "artifacts-26/filestore/[organisation]/[module](/[branch])/[revision]/[type]/*/[artifact]-[revision](-[classifier])(.[ext])");
 
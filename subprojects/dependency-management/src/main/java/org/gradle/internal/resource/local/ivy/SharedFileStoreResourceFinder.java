@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local.ivy;
+
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactMetadata;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resource.local.DefaultLocallyAvailableResource;
+import org.gradle.internal.resource.local.DefaultPathKeyFileStore;
+import org.gradle.internal.resource.local.LocallyAvailableResource;
+import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates;
+import org.gradle.internal.resource.local.LocallyAvailableResourceFinder;
+
+import java.io.File;
+
+/**
+ * Finds artifacts in the file store of another Gradle user home, such as one shared by the build agents of a host.
+ *
+ * Entries in a file store are keyed by the SHA1 of their content and are never modified once added, so they are looked up by hash
+ * without reading the candidate files, and are read without acquiring the cache lock of the other Gradle user home.
+ */
+public class SharedFileStoreResourceFinder implements LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> {
+    private final File fileStoreDir;
+
+    public SharedFileStoreResourceFinder(File fileStoreDir) {
+        this.fileStoreDir = fileStoreDir;
+    }
+
+    @Override
+    public LocallyAvailableResourceCandidates findCandidates(ModuleComponentArtifactMetadata artifact) {
+        ModuleComponentArtifactIdentifier artifactId = artifact.getId();
+        ModuleComponentIdentifier componentId = artifactId.getComponentIdentifier();
+        File componentDir = new File(fileStoreDir, componentId.getGroup() + '/' + componentId.getModule() + '/' + componentId.getVersion());
+        return new SharedFileStoreCandidates(componentDir, artifactId.getFileName());
+    }
+
+    private static class SharedFileStoreCandidates implements LocallyAvailableResourceCandidates {
+        private final File componentDir;
+        private final String fileName;
+
+        SharedFileStoreCandidates(File componentDir, String fileName) {
+            this.componentDir = componentDir;
+            this.fileName = fileName;
+        }
+
+        @Override
+        public boolean isNone() {
+            File[] checksumDirs = componentDir.listFiles();
+            if (checksumDirs == null) {
+                return true;
+            }
+            for (File checksumDir : checksumDirs) {
+                if (isComplete(new File(checksumDir, fileName))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public LocallyAvailableResource findByHashValue(HashValue hashValue) {
+            File file = new File(new File(componentDir, hashValue.asHexString()), fileName);
+            if (isComplete(file)) {
+                return new SharedFileStoreResource(file, hashValue);
+            }
+            return null;
+        }
+
+        private static boolean isComplete(File file) {
+            return file.isFile() && !new File(file.getParentFile(), file.getName() + DefaultPathKeyFileStore.IN_PROGRESS_MARKER_FILE_SUFFIX).exists();
+        }
+    }
+
+    /**
+     * A file in a shared file store. As the file is never modified in place, it can be hard linked rather than copied.
+     */
+    public static class SharedFileStoreResource extends DefaultLocallyAvailableResource {
+        SharedFileStoreResource(File origin, HashValue sha1) {
+            super(origin, sha1);
+        }
+    }
+}
@@ -39,8 +39,10 @@ import org.gradle.internal.resource.local.FileResourceRepository;
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
 import org.gradle.internal.resource.local.LocallyAvailableResource;
 import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates;
+import org.gradle.internal.resource.local.ivy.SharedFileStoreResourceFinder;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
+import org.gradle.internal.resource.transfer.jdk7.Jdk7HardLink;
 import org.gradle.util.BuildCommencedTimeProvider;
 import org.gradle.util.GFileUtils;
 import org.slf4j.Logger;
@@ -181,7 +183,9 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private LocallyAvailableExternalResource copyCandidateToCache(ExternalResourceName source, ResourceFileStore fileStore, ExternalResourceMetaData remoteMetaData, HashValue remoteChecksum, LocallyAvailableResource local) throws IOException {
         final File destination = temporaryFileProvider.createTemporaryFile("gradle_download", "bin");
         try {
-            Files.copy(local.getFile(), destination);
+            if (!(local instanceof SharedFileStoreResourceFinder.SharedFileStoreResource) || !createLink(local.getFile(), destination)) {
+                Files.copy(local.getFile(), destination);
+            }
             HashValue localChecksum = HashUtil.createHash(destination, "SHA1");
             if (!localChecksum.equals(remoteChecksum)) {
                 return null;
@@ -192,6 +196,20 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         }
     }
 
+    /**
+     * Hard links a file from a shared file store, so that the cached copy does not take up additional space. This fails when the
+     * files are on different file systems, in which case the file is copied instead.
+     */
+    private static boolean createLink(File source, File destination) {
+        try {
+            Jdk7HardLink.createHardLink(destination, source);
+            return true;
+        } catch (Exception e) {
+            LOGGER.debug("Could not link {} to {}, copying it instead.", source, destination, e);
+            return false;
+        }
+    }
+
     private LocallyAvailableExternalResource copyToCache(final ExternalResourceName source, final ResourceFileStore fileStore, final ExternalResource resource) {
         // Download to temporary location
         DownloadAction downloadAction = new DownloadAction(source);
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer.jdk7;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class Jdk7HardLink {
+    /**
+     * Creates a hard link to the given target, replacing any existing file at the link location.
+     *
+     * @throws IOException if the link cannot be created, for example because the files are on different file systems
+     */
+    public static void createHardLink(File link, File target) throws IOException {
+        Files.deleteIfExists(link.toPath());
+        Files.createLink(link.toPath(), target.toPath());
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.Transformer
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import org.gradle.internal.component.model.DependencyMetadata
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resolve.ModuleVersionResolveException
+import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult
+import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult
+import org.gradle.internal.resolve.result.ComponentSelectionContext
+import org.gradle.internal.resolve.result.DefaultBuildableComponentIdResolveResult
+import spock.lang.Specification
+
+class DynamicVersionResolverTest extends Specification {
+    def requested = DefaultModuleVersionSelector.newSelector("org", "foo", "1.+")
+    def dependency = Stub(DependencyMetadata) {
+        getRequested() >> requested
+    }
+    def chooser = Stub(VersionedComponentChooser)
+    def metaDataFactory = Stub(Transformer) {
+        transform(_) >> { RepositoryChainModuleResolution resolution -> resolution.module }
+    }
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def resolver = new DynamicVersionResolver(chooser, metaDataFactory, buildOperationExecutor)
+
+    def setup() {
+        // Matches the newest listed version, unless only the stale "1.0" from the local cache is listed
+        chooser.selectNewestMatchingComponent(_, _, _) >> { Collection<ModuleComponentResolveState> candidates, ComponentSelectionContext context, VersionSelector selector ->
+            def versions = candidates*.version*.source
+            if (versions == ["1.0"]) {
+                context.noMatchFound()
+            } else {
+                context.matches(candidates.max { it.version.source }.id)
+            }
+        }
+        chooser.selectNewestComponent(_, _) >> { ModuleComponentResolveMetadata one, ModuleComponentResolveMetadata two ->
+            one.id.version >= two.id.version ? one : two
+        }
+    }
+
+    def "lists versions from each repository once using a build operation per repository"() {
+        def metaData1 = metaData("1.1")
+        def metaData2 = metaData("1.2")
+        def local1 = Mock(ModuleComponentRepositoryAccess)
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        def local2 = Mock(ModuleComponentRepositoryAccess)
+        def remote2 = Mock(ModuleComponentRepositoryAccess)
+        resolver.add(repository("repo1", local1, remote1))
+        resolver.add(repository("repo2", local2, remote2))
+
+        when:
+        def result = resolve()
+
+        then:
+        1 * local1.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> staleListing(listing) }
+        1 * local2.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> staleListing(listing) }
+        1 * remote1.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> listing.listed(["1.0", "1.1"]) }
+        1 * remote2.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> listing.listed(["1.0", "1.2"]) }
+        1 * local1.resolveComponentMetaData({ it.version == "1.1" }, _, _) >> { id, override, BuildableModuleComponentMetaDataResolveResult metaDataResult -> metaDataResult.resolved(metaData1) }
+        1 * local2.resolveComponentMetaData({ it.version == "1.2" }, _, _) >> { id, override, BuildableModuleComponentMetaDataResolveResult metaDataResult -> metaDataResult.resolved(metaData2) }
+        0 * _._
+
+        and:
+        buildOperationExecutor.operations*.displayName == ["List versions of org:foo:1.+ from repo1", "List versions of org:foo:1.+ from repo2"]
+        result.failure == null
+        result.metaData == metaData2
+    }
+
+    def "does not use a build operation to list versions when only one repository needs a remote listing"() {
+        def metaData1 = metaData("1.1")
+        def local1 = Mock(ModuleComponentRepositoryAccess)
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        resolver.add(repository("repo1", local1, remote1))
+
+        when:
+        def result = resolve()
+
+        then:
+        1 * local1.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> staleListing(listing) }
+        1 * remote1.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> listing.listed(["1.0", "1.1"]) }
+        1 * local1.resolveComponentMetaData({ it.version == "1.1" }, _, _) >> { id, override, BuildableModuleComponentMetaDataResolveResult metaDataResult -> metaDataResult.resolved(metaData1) }
+        0 * _._
+
+        and:
+        buildOperationExecutor.operations.empty
+        result.failure == null
+        result.metaData == metaData1
+    }
+
+    def "does not list versions remotely when a version is found in the local cache"() {
+        def metaData1 = metaData("1.1")
+        def local1 = Mock(ModuleComponentRepositoryAccess)
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        def local2 = Mock(ModuleComponentRepositoryAccess)
+        def remote2 = Mock(ModuleComponentRepositoryAccess)
+        resolver.add(repository("repo1", local1, remote1))
+        resolver.add(repository("repo2", local2, remote2))
+
+        when:
+        def result = resolve()
+
+        then:
+        1 * local1.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> listing.listed(["1.1"]) }
+        1 * local2.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> staleListing(listing) }
+        1 * local1.resolveComponentMetaData({ it.version == "1.1" }, _, _) >> { id, override, BuildableModuleComponentMetaDataResolveResult metaDataResult -> metaDataResult.resolved(metaData1) }
+        0 * _._
+
+        and:
+        buildOperationExecutor.operations.empty
+        result.metaData == metaData1
+    }
+
+    def "does not list versions from later repositories after a critical failure"() {
+        def failure = new ModuleVersionResolveException(requested, new InterruptedIOException("timeout"))
+        def local1 = Mock(ModuleComponentRepositoryAccess)
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        def local2 = Mock(ModuleComponentRepositoryAccess)
+        def remote2 = Mock(ModuleComponentRepositoryAccess)
+        resolver.add(repository("repo1", local1, remote1))
+        resolver.add(repository("repo2", local2, remote2))
+
+        when:
+        def result = resolve()
+
+        then:
+        1 * local1.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> staleListing(listing) }
+        1 * local2.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> staleListing(listing) }
+        1 * remote1.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> listing.failed(failure) }
+        0 * _._
+
+        and:
+        result.failure instanceof ModuleVersionResolveException
+        result.failure.causes == [failure]
+    }
+
+    def "reports exception thrown while listing versions concurrently in repository order"() {
+        def failure = new RuntimeException("broken")
+        def metaData2 = metaData("1.2")
+        def local1 = Mock(ModuleComponentRepositoryAccess)
+        def remote1 = Mock(ModuleComponentRepositoryAccess)
+        def local2 = Mock(ModuleComponentRepositoryAccess)
+        def remote2 = Mock(ModuleComponentRepositoryAccess)
+        resolver.add(repository("repo1", local1, remote1))
+        resolver.add(repository("repo2", local2, remote2))
+
+        when:
+        def result = resolve()
+
+        then:
+        1 * local1.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> staleListing(listing) }
+        1 * local2.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> staleListing(listing) }
+        1 * remote1.listModuleVersions(dependency, _) >> { throw failure }
+        1 * remote2.listModuleVersions(dependency, _) >> { DependencyMetadata dep, BuildableModuleVersionListingResolveResult listing -> listing.listed(["1.0", "1.2"]) }
+        1 * local2.resolveComponentMetaData({ it.version == "1.2" }, _, _) >> { id, override, BuildableModuleComponentMetaDataResolveResult metaDataResult -> metaDataResult.resolved(metaData2) }
+        0 * _._
+
+        and:
+        buildOperationExecutor.operations*.displayName == ["List versions of org:foo:1.+ from repo1", "List versions of org:foo:1.+ from repo2"]
+        result.failure == null
+        result.metaData == metaData2
+    }
+
+    def resolve() {
+        def result = new DefaultBuildableComponentIdResolveResult()
+        resolver.resolve(dependency, Stub(VersionSelector), result)
+        return result
+    }
+
+    def staleListing(BuildableModuleVersionListingResolveResult listing) {
+        listing.listed(["1.0"])
+        listing.authoritative = false
+    }
+
+    def repository(String name, ModuleComponentRepositoryAccess localAccess, ModuleComponentRepositoryAccess remoteAccess) {
+        Stub(ModuleComponentRepository) {
+            getName() >> name
+            getLocalAccess() >> localAccess
+            getRemoteAccess() >> remoteAccess
+        }
+    }
+
+    def metaData(String version) {
+        Stub(ModuleComponentResolveMetadata) {
+            getId() >> DefaultModuleVersionIdentifier.newId("org", "foo", version)
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.Transformer
+import org.gradle.api.artifacts.ModuleIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata
+import org.gradle.internal.component.model.DependencyMetadata
+import org.gradle.internal.component.model.IvyArtifactName
+import org.gradle.internal.resolve.result.DefaultBuildableComponentIdResolveResult
+import spock.lang.Specification
+
+class RepositoryChainDependencyToComponentIdResolverTest extends Specification {
+    def requested = DefaultModuleVersionSelector.newSelector("org", "foo", "1.+")
+    def selector = DefaultModuleComponentSelector.newSelector(requested)
+    def resolvedComponents = new ResolvedComponentCache()
+    def resolver = new RepositoryChainDependencyToComponentIdResolver(Stub(VersionedComponentChooser), Stub(Transformer), Stub(ImmutableModuleIdentifierFactory), new DefaultVersionSelectorScheme(new DefaultVersionComparator()), resolvedComponents, null)
+    def metadata = Stub(ModuleComponentResolveMetadata)
+
+    def "reuses dynamic selection for dependency with the same selector"() {
+        given:
+        resolvedComponents.dynamicSelectionResolved(selector, DefaultComponentOverrideMetadata.forDependency(dependency()), metadata)
+
+        when:
+        def result = resolve(dependency())
+
+        then:
+        result.failure == null
+        result.metaData == metadata
+    }
+
+    def "does not reuse dynamic selection for #description dependency with the same selector"() {
+        given:
+        resolvedComponents.dynamicSelectionResolved(selector, DefaultComponentOverrideMetadata.forDependency(dependency()), metadata)
+
+        when:
+        def result = resolve(dependency(changing, artifactSpecific))
+
+        then:
+        result.failure != null
+
+        where:
+        description         | changing | artifactSpecific
+        "changing"          | true     | false
+        "artifact specific" | false    | true
+    }
+
+    def "does not share dynamic selection made for #description dependency"() {
+        when:
+        resolvedComponents.dynamicSelectionResolved(selector, DefaultComponentOverrideMetadata.forDependency(dependency(changing, artifactSpecific)), metadata)
+
+        then:
+        resolvedComponents.getDynamicSelection(selector, DefaultComponentOverrideMetadata.forDependency(dependency())) == null
+        resolvedComponents.getComponent(metadata.componentId, DefaultComponentOverrideMetadata.forDependency(dependency())) == null
+
+        where:
+        description         | changing | artifactSpecific
+        "changing"          | true     | false
+        "artifact specific" | false    | true
+    }
+
+    def resolve(DependencyMetadata dependency) {
+        def result = new DefaultBuildableComponentIdResolveResult()
+        resolver.resolve(dependency, Stub(ModuleIdentifier), result)
+        return result
+    }
+
+    def dependency(boolean changing = false, boolean artifactSpecific = false) {
+        def artifacts = artifactSpecific ? [Stub(IvyArtifactName)] as Set : [] as Set
+        Stub(DependencyMetadata) {
+            getSelector() >> selector
+            getRequested() >> requested
+            isChanging() >> changing
+            getArtifacts() >> artifacts
+        }
+    }
+}
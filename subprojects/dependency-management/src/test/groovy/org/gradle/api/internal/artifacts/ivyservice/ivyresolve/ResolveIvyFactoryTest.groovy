@@ -32,11 +32,13 @@ import org.gradle.api.internal.artifacts.repositories.resolver.ExternalResourceR
 import org.gradle.api.internal.artifacts.repositories.resolver.VersionLister
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetadata
+import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.resource.ExternalResourceRepository
 import org.gradle.internal.resource.cached.CachedArtifactIndex
 import org.gradle.internal.resource.local.FileStore
 import org.gradle.internal.resource.local.LocallyAvailableResourceFinder
 import org.gradle.internal.resource.transfer.CacheAwareExternalResourceAccessor
+import org.gradle.internal.rules.SpecRuleAction
 import org.gradle.util.BuildCommencedTimeProvider
 import spock.lang.Specification
 import spock.lang.Subject
@@ -74,7 +76,7 @@ class ResolveIvyFactoryTest extends Specification {
 
         resolveIvyFactory = new ResolveIvyFactory(moduleVersionsCache, moduleMetaDataCache, moduleArtifactsCache,
             cachedArtifactIndex, startParameterResolutionOverride, buildCommencedTimeProvider,
-            inMemoryCachedRepositoryFactory, versionSelectorScheme, versionComparator, moduleIdentifierFactory, repositoryBlacklister)
+            inMemoryCachedRepositoryFactory, versionSelectorScheme, versionComparator, moduleIdentifierFactory, repositoryBlacklister, Stub(BuildOperationExecutor))
     }
 
     def "returns an empty resolver when no repositories are configured" () {
@@ -114,6 +116,41 @@ class ResolveIvyFactoryTest extends Specification {
         }
     }
 
+    def "shares resolved components between resolutions using the same repositories and metadata rules" () {
+        def metadataProcessor = Stub(ComponentMetadataProcessor)
+        def repository = Stub(ResolutionAwareRepository) {
+            createResolver() >> externalResourceResolverSpy()
+        }
+
+        when:
+        def first = resolveIvyFactory.create(Stub(ResolutionStrategyInternal), [repository], metadataProcessor)
+        def second = resolveIvyFactory.create(Stub(ResolutionStrategyInternal), [repository], metadataProcessor)
+        def otherRules = resolveIvyFactory.create(Stub(ResolutionStrategyInternal), [repository], Stub(ComponentMetadataProcessor))
+
+        then:
+        first.componentResolver.resolvedComponents != null
+        first.componentResolver.resolvedComponents.is(second.componentResolver.resolvedComponents)
+        first.componentIdResolver.resolvedComponents.is(second.componentResolver.resolvedComponents)
+        !otherRules.componentResolver.resolvedComponents.is(first.componentResolver.resolvedComponents)
+    }
+
+    def "does not share resolved components when component selection rules are used" () {
+        def resolutionStrategy = Stub(ResolutionStrategyInternal) {
+            getComponentSelection() >> Stub(ComponentSelectionRulesInternal) {
+                getRules() >> [Stub(SpecRuleAction)]
+            }
+        }
+        def repository = Stub(ResolutionAwareRepository) {
+            createResolver() >> externalResourceResolverSpy()
+        }
+
+        when:
+        def resolver = resolveIvyFactory.create(resolutionStrategy, [repository], Stub(ComponentMetadataProcessor))
+
+        then:
+        resolver.componentResolver.resolvedComponents == null
+    }
+
     def externalResourceResolverSpy() {
         ExternalResourceRepository externalResourceRepository = Stub()
         CacheAwareExternalResourceAccessor cacheAwareExternalResourceAccessor = Stub()
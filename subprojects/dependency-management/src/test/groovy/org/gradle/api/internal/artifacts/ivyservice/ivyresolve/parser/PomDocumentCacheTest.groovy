@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.internal.event.ListenerManager
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class PomDocumentCacheTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final fileRepository = TestFiles.fileRepository()
+    final cache = new PomDocumentCache(new CrossBuildInMemoryCacheFactory(Stub(ListenerManager)))
+
+    def "returns a copy of the parsed document for each request"() {
+        def pom = tmpDir.file("parent.pom") << "<project><groupId>group-one</groupId></project>"
+
+        when:
+        def first = cache.getDocument(fileRepository.resource(pom))
+        first.documentElement.firstChild.textContent = "changed"
+        def second = cache.getDocument(fileRepository.resource(pom))
+
+        then:
+        !first.is(second)
+        second.documentElement.nodeName == "project"
+        second.documentElement.firstChild.textContent == "group-one"
+    }
+
+    def "parses the file again when its content changes"() {
+        def pom = tmpDir.file("parent.pom") << "<project><groupId>group-one</groupId></project>"
+        cache.getDocument(fileRepository.resource(pom))
+
+        when:
+        pom.text = "<project><groupId>group-two</groupId></project>"
+        def result = cache.getDocument(fileRepository.resource(pom))
+
+        then:
+        result.documentElement.firstChild.textContent == "group-two"
+    }
+}
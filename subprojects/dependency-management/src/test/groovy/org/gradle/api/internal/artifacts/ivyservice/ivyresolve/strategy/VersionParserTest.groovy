@@ -34,6 +34,14 @@ class VersionParserTest extends Specification {
         v != parse("1.2b")
     }
 
+    def "reuses parsed version for the same source string"() {
+        def parser = new VersionParser()
+
+        expect:
+        parser.transform("1.2-beta").is(parser.transform("1.2-beta"))
+        !parser.transform("1.2-beta").is(parser.transform("1.2-beta2"))
+    }
+
     def "splits version on punctuation"() {
         expect:
         def version = parse(versionStr)
@@ -20,8 +20,11 @@ import org.gradle.api.artifacts.ModuleVersionIdentifier
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier
 import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.internal.component.external.model.DefaultMutableMavenModuleResolveMetadata
+import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata
+import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.resource.local.LocallyAvailableResource
 import org.gradle.internal.resource.local.PathKeyFileStore
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -68,4 +71,37 @@ class ModuleMetadataStoreTest extends Specification {
         };
         1 * serializer.write(_, descriptor)
     }
+
+    def "reuses descriptor content retained in memory while the index entry is unchanged"() {
+        setup:
+        def descriptorCache = new InMemoryModuleDescriptorCache(new CrossBuildInMemoryCacheFactory(Stub(ListenerManager)))
+        def cachingStore = new ModuleMetadataStore(pathKeyFileStore, serializer, moduleIdentifierFactory, temporaryFolder.testDirectory, descriptorCache)
+        def key = new ModuleComponentAtRepositoryKey(repository, moduleComponentIdentifier)
+        def descriptorFile = temporaryFolder.createFile("fileStoreEntry") << "content"
+        fileStoreEntry.file >> descriptorFile
+        def metadata = Mock(MutableModuleComponentResolveMetadata)
+
+        when:
+        def result = cachingStore.getModuleDescriptor(key, 100)
+
+        then:
+        result == metadata
+        1 * pathKeyFileStore.get("org.test/testArtifact/1.0/repositoryId/descriptor.bin") >> fileStoreEntry
+        1 * serializer.read(_, moduleIdentifierFactory) >> metadata
+
+        when:
+        result = cachingStore.getModuleDescriptor(key, 100)
+
+        then:
+        result == metadata
+        0 * pathKeyFileStore._
+        1 * serializer.read(_, moduleIdentifierFactory) >> metadata
+
+        when:
+        cachingStore.getModuleDescriptor(key, 200)
+
+        then:
+        1 * pathKeyFileStore.get("org.test/testArtifact/1.0/repositoryId/descriptor.bin") >> fileStoreEntry
+        1 * serializer.read(_, moduleIdentifierFactory) >> metadata
+    }
 }
@@ -719,6 +719,52 @@ class DefaultModuleExclusionTest extends Specification {
         !intersect(spec1, spec2).excludesSameModulesAs(intersect(spec1, spec3))
     }
 
+    @Unroll
+    def "union and intersection of specs with #description rules do not depend on rule order"() {
+        def spec2 = excludeAny(moduleRules(twoModules.reverse()))
+        def spec = excludeAny(moduleRules(oneModules))
+        def allModules = (oneModules + twoModules).unique()
+
+        expect:
+        def union = union(spec, spec2)
+        union == (bothModules.empty ? excludeNone() : excludeAny(moduleRules(bothModules)))
+        union == union(spec2, spec)
+        allModules.every { union.excludeModule(moduleId("org", "module$it")) == (it in bothModules) }
+
+        def intersection = intersect(spec, spec2)
+        intersection == excludeAny(moduleRules(allModules))
+        intersection == intersect(spec2, spec)
+        allModules.every { intersection.excludeModule(moduleId("org", "module$it")) }
+        !intersection.excludeModule(moduleId("org", "other"))
+
+        where:
+        description   | oneModules | twoModules | bothModules
+        "identical"   | (0..99)    | (0..99)    | (0..99)
+        "overlapping" | (0..79)    | (40..119)  | (40..79)
+        "disjoint"    | (0..59)    | (60..129)  | []
+    }
+
+    def "intersection of a spec with one of its rules returns the original spec"() {
+        def unionSpec = union(excludeAny(regexpExcludeRule("org", "module")), excludeAny(regexpExcludeRule("org", "module2")))
+        def spec = intersect(excludeAny(moduleRules(0..99)), unionSpec)
+        assert unionSpec instanceof UnionExclusion
+
+        expect:
+        intersect(spec, unionSpec).is(spec)
+        intersect(unionSpec, spec).is(spec)
+    }
+
+    def "union of two specs reuses the merged result"() {
+        def spec = excludeAny(moduleRules(0..79))
+        def spec2 = excludeAny(moduleRules(40..119))
+
+        expect:
+        def union = union(spec, spec2)
+        union(spec, spec2).is(union)
+        union(spec2, spec) == union
+        union(union(spec, spec2), spec2) == union
+    }
+
     def "does not accept artifact that matches specific exclude rule"() {
         def rule1 = excludeArtifactRule("a", "jar", "jar")
         def rule2 = excludeArtifactRule("b", "jar", "jar")
@@ -785,6 +831,10 @@ class DefaultModuleExclusionTest extends Specification {
         new DefaultExclude(DefaultModuleIdentifier.newId(org, module), name, type, ext, new String[0], PatternMatchers.EXACT)
     }
 
+    Exclude[] moduleRules(Iterable<Integer> modules) {
+        modules.collect { excludeRule("org", "module$it") } as Exclude[]
+    }
+
     def excludeModuleRule(String module) {
         new DefaultExclude(DefaultModuleIdentifier.newId("*", module), "*", "*", "*", new String[0], PatternMatchers.EXACT)
     }
@@ -31,6 +31,8 @@ import org.gradle.testfixtures.internal.InMemoryCacheFactory
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
 
+import java.util.concurrent.TimeUnit
+
 @UsesNativeServices
 class DefaultTransformedFileCacheTest extends ConcurrentSpec {
     @Rule
@@ -77,6 +79,25 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         0 * transform._
     }
 
+    def "moves transform outputs into the file store"() {
+        def transform = Mock(BiFunction)
+        def inputFile = tmpDir.file("a")
+        def outputDir = null
+
+        when:
+        def result = cache.getResult(inputFile, HashCode.fromInt(123), transform)
+
+        then:
+        1 * snapshotter.snapshotAll(inputFile) >> snapshot(HashCode.fromInt(234))
+        1 * transform.apply(inputFile, _) >>  { File file, File dir -> outputDir = dir; def r = new File(dir, "a.1"); r.text = "result"; [r] }
+
+        and:
+        result.size() == 1
+        result.first().text == "result"
+        result.first().parentFile != outputDir
+        !outputDir.exists()
+    }
+
     def "reuses result when transform returns its input file"() {
         def transform = Mock(BiFunction)
         def inputFile = tmpDir.file("a").createFile()
@@ -304,6 +325,43 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         0 * transform._
     }
 
+    def "relocates transform outputs returned through a non-canonical path"() {
+        def transform = Mock(BiFunction)
+        def inputFile = tmpDir.file("a")
+        def outputDir = null
+
+        when:
+        def result = cache.getResult(inputFile, HashCode.fromInt(123), transform)
+
+        then:
+        1 * snapshotter.snapshotAll(inputFile) >> snapshot(HashCode.fromInt(234))
+        1 * transform.apply(inputFile, _) >>  { File file, File dir ->
+            outputDir = dir
+            new File(dir, "a.1").text = "result"
+            [new File(dir, "../${dir.name}/./a.1")]
+        }
+
+        and:
+        result.size() == 1
+        result.first().file
+        result.first().text == "result"
+        !outputDir.exists()
+    }
+
+    def "deletes stale temporary directories when the cache is opened"() {
+        def staleDir = tmpDir.file("output/tmp/a-stale").createDir()
+        staleDir.file("output/a.1").createFile()
+        staleDir.lastModified = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)
+        def recentDir = tmpDir.file("output/tmp/a-recent").createDir()
+
+        when:
+        new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter)
+
+        then:
+        !staleDir.exists()
+        recentDir.directory
+    }
+
     def snapshot(HashCode hashCode) {
         FileCollectionSnapshot snapshot = Stub(FileCollectionSnapshot)
         snapshot.appendToHasher(_) >> { BuildCacheHasher hasher -> hasher.putHash(hashCode) }
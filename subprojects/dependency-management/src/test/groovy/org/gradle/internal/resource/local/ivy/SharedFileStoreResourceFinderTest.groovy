@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local.ivy
+
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactMetadata
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.hash.HashUtil
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SharedFileStoreResourceFinderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def artifact = new DefaultModuleComponentArtifactMetadata(DefaultModuleComponentIdentifier.newId("org.test", "lib", "1.0"), new DefaultIvyArtifactName("lib", "jar", "jar"))
+    def finder
+
+    def setup() {
+        finder = new SharedFileStoreResourceFinder(tmpDir.file("files-2.1"))
+    }
+
+    def "finds artifact by checksum"() {
+        def content = tmpDir.file("content.jar") << "content"
+        def hash = HashUtil.sha1(content)
+        def stored = tmpDir.file("files-2.1/org.test/lib/1.0/${hash.asHexString()}/lib-1.0.jar") << "content"
+
+        when:
+        def candidates = finder.findCandidates(artifact)
+
+        then:
+        !candidates.isNone()
+        candidates.findByHashValue(hash).file == stored
+        candidates.findByHashValue(HashUtil.sha1("other".bytes)) == null
+    }
+
+    def "has no candidates when the artifact is not in the store"() {
+        expect:
+        finder.findCandidates(artifact).isNone()
+    }
+
+    def "ignores entries that are still being written"() {
+        def content = tmpDir.file("content.jar") << "content"
+        def hash = HashUtil.sha1(content)
+        def checksumDir = tmpDir.file("files-2.1/org.test/lib/1.0/${hash.asHexString()}")
+        checksumDir.file("lib-1.0.jar") << "content"
+        checksumDir.file("lib-1.0.jar.fslck").touch()
+
+        when:
+        def candidates = finder.findCandidates(artifact)
+
+        then:
+        candidates.isNone()
+        candidates.findByHashValue(hash) == null
+    }
+}
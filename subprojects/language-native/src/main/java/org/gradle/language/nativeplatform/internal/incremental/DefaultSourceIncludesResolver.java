@@ -22,18 +22,23 @@ import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private final List<File> includePaths;
     private final Map<File, Map<String, Boolean>> includeRoots;
+    private final Map<File, Set<String>> directoryContents;
 
     public DefaultSourceIncludesResolver(List<File> includePaths) {
         this.includePaths = includePaths;
         this.includeRoots = new HashMap<File, Map<String, Boolean>>();
+        this.directoryContents = new HashMap<File, Set<String>>();
     }
 
     @Override
@@ -79,7 +84,7 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
                 continue;
             }
 
-            boolean found = candidate.isFile();
+            boolean found = isFile(candidate);
             searchedIncludes.put(include, found);
 
             if (found) {
@@ -89,6 +94,46 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
         }
     }
 
+    /**
+     * Most candidates do not exist, so rule these out using a listing of the candidate's directory rather than querying the file system for each candidate.
+     * Names are compared ignoring case so that this also works on case insensitive file systems.
+     */
+    private boolean isFile(File candidate) {
+        String name = candidate.getName();
+        if (!isAscii(name)) {
+            // Names in the directory listing may use a different unicode normalization form to the include
+            return candidate.isFile();
+        }
+        Set<String> contents = listDirectory(candidate.getParentFile());
+        return contents.contains(name.toLowerCase(Locale.ROOT)) && candidate.isFile();
+    }
+
+    private Set<String> listDirectory(File dir) {
+        Set<String> contents = directoryContents.get(dir);
+        if (contents == null) {
+            String[] names = dir.list();
+            if (names == null) {
+                contents = Collections.emptySet();
+            } else {
+                contents = new HashSet<String>(names.length);
+                for (String name : names) {
+                    contents.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+            directoryContents.put(dir, contents);
+        }
+        return contents;
+    }
+
+    private static boolean isAscii(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static class BuildableResolvedSourceIncludes implements ResolvedSourceIncludes {
         private final Set<ResolvedInclude> dependencies = Sets.newLinkedHashSet();
         private final Set<File> candidates = Sets.newLinkedHashSet();
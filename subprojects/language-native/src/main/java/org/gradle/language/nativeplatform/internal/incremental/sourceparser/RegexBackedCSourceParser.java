@@ -49,9 +49,13 @@ public class RegexBackedCSourceParser implements CSourceParser {
             BufferedReader bf = new BufferedReader(new PreprocessingReader(new BufferedReader(new FileReader(file))));
 
             try {
+                Matcher m = includePattern.matcher("");
                 String line;
                 while ((line = bf.readLine()) != null) {
-                    Matcher m = includePattern.matcher(line.trim());
+                    if (!isDirective(line)) {
+                        continue;
+                    }
+                    m.reset(line.trim());
 
                     if (m.matches()) {
                         boolean isImport = "import".equals(m.group(1));
@@ -69,4 +73,17 @@ public class RegexBackedCSourceParser implements CSourceParser {
 
         return includes;
     }
+
+    /**
+     * Cheap check to avoid matching the include pattern against every line of the file.
+     */
+    private static boolean isDirective(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch > ' ') {
+                return ch == '#';
+            }
+        }
+        return false;
+    }
 }
@@ -100,6 +100,21 @@ class DefaultSourceIncludesResolverTest extends Specification {
         searchedCandidates() == [ header1, header2, header3 ]
     }
 
+    def "ignores includes that refer to a directory"() {
+        when:
+        sourceDirectory.createDir("test.h")
+        final includeDir = testDirectory.file("include")
+        final header = includeDir.createFile("test.h")
+
+        and:
+        includePaths << includeDir
+        quotedIncludes << "test.h"
+
+        then:
+        dependencies == deps(header)
+        searchedCandidates() == [ sourceDirectory.file("test.h"), header ]
+    }
+
     def "does not locate system includes in same directory"() {
         when:
         sourceDirectory.file("system.h").createFile()
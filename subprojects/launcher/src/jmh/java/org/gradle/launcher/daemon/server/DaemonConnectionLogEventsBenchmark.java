@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.logging.events.LogEvent;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.remote.internal.inet.SocketConnection;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.launcher.daemon.protocol.DaemonMessageSerializer;
+import org.gradle.launcher.daemon.protocol.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the rate at which log events are sent from the daemon to a client over a loopback connection,
+ * when the connection is flushed for each event and when it is flushed once per batch of events.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class DaemonConnectionLogEventsBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private DefaultExecutorFactory executorFactory;
+    private DefaultDaemonConnection daemonConnection;
+    private SocketConnection<Message> clientConnection;
+    private Thread receiver;
+    private final List<OutputEvent> events = new ArrayList<OutputEvent>(BATCH_SIZE);
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        SocketChannel client = SocketChannel.open(server.socket().getLocalSocketAddress());
+        SocketChannel daemon = server.accept();
+        server.close();
+
+        executorFactory = new DefaultExecutorFactory();
+        daemonConnection = new DefaultDaemonConnection(connection(daemon), executorFactory);
+        clientConnection = connection(client);
+        receiver = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (clientConnection.receive() != null) {
+                    // discard
+                }
+            }
+        });
+        receiver.start();
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            events.add(new LogEvent(i, "category", LogLevel.LIFECYCLE, "some test output line " + i, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        daemonConnection.stop();
+        clientConnection.stop();
+        receiver.join();
+        executorFactory.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void flushPerEvent() {
+        for (OutputEvent event : events) {
+            daemonConnection.logEvent(event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void flushPerBatch() {
+        daemonConnection.logEvents(events);
+    }
+
+    private static SocketConnection<Message> connection(SocketChannel channel) {
+        return new SocketConnection<Message>(channel, new KryoBackedMessageSerializer(), Serializers.stateful(DaemonMessageSerializer.create()));
+    }
+}
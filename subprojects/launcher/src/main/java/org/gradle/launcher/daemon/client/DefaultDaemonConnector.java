@@ -45,6 +45,8 @@ import org.gradle.launcher.daemon.server.api.DaemonStateControl;
 import org.gradle.util.CollectionUtils;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
@@ -60,6 +62,12 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private static final Logger LOGGER = Logging.getLogger(DefaultDaemonConnector.class);
     public static final int DEFAULT_CONNECT_TIMEOUT = 30000;
     public static final int CANCELED_WAIT_TIMEOUT = 3000;
+    private static final Comparator<DaemonInfo> MOST_RECENTLY_USED_FIRST = new Comparator<DaemonInfo>() {
+        @Override
+        public int compare(DaemonInfo left, DaemonInfo right) {
+            return right.getLastBusy().compareTo(left.getLastBusy());
+        }
+    };
     private final DaemonRegistry daemonRegistry;
     protected final OutgoingConnector connector;
     private final DaemonStarter daemonStarter;
@@ -145,6 +153,9 @@ public class DefaultDaemonConnector implements DaemonConnector {
 
     private DaemonClientConnection connectToIdleDaemon(Collection<DaemonInfo> idleDaemons, ExplainingSpec<DaemonContext> constraint) {
         final List<DaemonInfo> compatibleIdleDaemons = getCompatibleDaemons(idleDaemons, constraint);
+        // Prefer the most recently used daemon, as it is the most likely to have warm caches and JIT compiled code.
+        // This also lets the other daemons become idle for longer, and eventually expire.
+        Collections.sort(compatibleIdleDaemons, MOST_RECENTLY_USED_FIRST);
         return findConnection(compatibleIdleDaemons);
     }
 
@@ -85,6 +85,11 @@ public interface DaemonConnection extends Stoppable {
      */
     void logEvent(OutputEvent logEvent);
 
+    /**
+     * Dispatches the given log event messages to the client, in order, flushing the connection once for all of them.
+     */
+    void logEvents(Iterable<? extends OutputEvent> logEvents);
+
     /**
      * Dispatches some build event to the client.
      */
@@ -147,6 +147,19 @@ class DefaultDaemonConnectorTest extends Specification {
         numAllDaemons == 2
     }
 
+    def "connect() prefers the most recently used idle daemon"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+        def recentlyUsed = registry.all.find { it.pid == 1 }
+        registry.markState(recentlyUsed.address, Busy)
+        registry.markState(recentlyUsed.address, Idle)
+
+        expect:
+        def connection = connector.connect({ true } as ExplainingSpec)
+        connection && connection.connection.num == 1
+    }
+
     def "connect() starts a new daemon when no daemon matches spec"() {
         given:
         startIdleDaemon()
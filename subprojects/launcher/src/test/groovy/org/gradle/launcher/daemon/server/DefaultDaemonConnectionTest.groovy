@@ -16,8 +16,11 @@
 
 package org.gradle.launcher.daemon.server
 
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.logging.events.LogEvent
 import org.gradle.launcher.daemon.protocol.CloseInput
 import org.gradle.launcher.daemon.protocol.ForwardInput
+import org.gradle.launcher.daemon.protocol.OutputMessage
 import org.gradle.launcher.daemon.server.api.StdinHandler
 import org.gradle.internal.remote.internal.MessageIOException
 import org.gradle.internal.remote.internal.RemoteConnection
@@ -347,18 +350,32 @@ class DefaultDaemonConnectionTest extends ConcurrentSpecification {
         result == ["incoming1", "incoming2"]
     }
 
+    def "dispatches batch of log events and flushes once"() {
+        def event1 = new LogEvent(1, "category", LogLevel.LIFECYCLE, "message 1", null)
+        def event2 = new LogEvent(2, "category", LogLevel.LIFECYCLE, "message 2", null)
+
+        when:
+        daemonConnection.logEvents([event1, event2])
+
+        then:
+        connection.dispatched.collect { (it as OutputMessage).event } == [event1, event2]
+        connection.flushes == 1
+    }
+
     static class TestConnection implements RemoteConnection<Object> {
         final Object lock = new Object()
         final Object endInput = new Object()
         final LinkedList<Object> receiveQueue = new LinkedList<Object>()
+        final List<Object> dispatched = []
+        int flushes
 
         void dispatch(Object message) {
-            throw new UnsupportedOperationException()
+            dispatched << message
         }
 
         @Override
         void flush() throws MessageIOException {
-            throw new UnsupportedOperationException()
+            flushes++
         }
 
         void queueIncoming(Object message) {
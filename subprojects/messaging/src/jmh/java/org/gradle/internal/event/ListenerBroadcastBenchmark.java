@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.event;
+
+import org.gradle.internal.dispatch.ProxyDispatchAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares notifying listeners through the generated broadcaster of a {@link ListenerBroadcast} with notifying them through a dynamic proxy.
+ */
+@Fork(2)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class ListenerBroadcastBenchmark {
+
+    @Param({"1", "4"})
+    int listenerCount;
+
+    private TestListener generated;
+    private TestListener proxy;
+    private long received;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ListenerBroadcast<TestListener> broadcast = new ListenerBroadcast<TestListener>(TestListener.class);
+        for (int i = 0; i < listenerCount; i++) {
+            broadcast.add(new TestListener() {
+                @Override
+                public void event(String value, long time) {
+                    received += time;
+                }
+            });
+        }
+        generated = broadcast.getSource();
+        proxy = new ProxyDispatchAdapter<TestListener>(broadcast, TestListener.class).getSource();
+    }
+
+    @Benchmark
+    public long generatedBroadcaster() {
+        generated.event("value", 12L);
+        return received;
+    }
+
+    @Benchmark
+    public long proxyBroadcaster() {
+        proxy.event("value", 12L);
+        return received;
+    }
+
+    public interface TestListener {
+        void event(String value, long time);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.asm;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Helpers for generating small, final classes that are defined in the ClassLoader of the type they are generated for.
+ */
+public class AsmGeneratedClassUtils implements Opcodes {
+
+    /**
+     * Starts a public, final and synthetic class with the given name, superclass and interfaces.
+     */
+    public static ClassWriter startClass(Type generatedType, Type superClassType, Type... interfaceTypes) {
+        String[] interfaces = new String[interfaceTypes.length];
+        for (int i = 0; i < interfaceTypes.length; i++) {
+            interfaces[i] = interfaceTypes[i].getInternalName();
+        }
+        // Use a class version that does not require stack map frames
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC, generatedType.getInternalName(), null, superClassType.getInternalName(), interfaces);
+        return visitor;
+    }
+
+    /**
+     * Returns true when the given type is visible from the given ClassLoader, so that a class defined in that ClassLoader can use it.
+     */
+    public static boolean canSee(ClassLoader classLoader, Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Boxes the value of the given type on top of the stack. Does nothing when the type is not a primitive type.
+     */
+    public static void box(MethodVisitor mv, Type type) {
+        Type boxedType;
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                boxedType = Type.getType(Boolean.class);
+                break;
+            case Type.CHAR:
+                boxedType = Type.getType(Character.class);
+                break;
+            case Type.BYTE:
+                boxedType = Type.getType(Byte.class);
+                break;
+            case Type.SHORT:
+                boxedType = Type.getType(Short.class);
+                break;
+            case Type.INT:
+                boxedType = Type.getType(Integer.class);
+                break;
+            case Type.LONG:
+                boxedType = Type.getType(Long.class);
+                break;
+            case Type.FLOAT:
+                boxedType = Type.getType(Float.class);
+                break;
+            case Type.DOUBLE:
+                boxedType = Type.getType(Double.class);
+                break;
+            default:
+                return;
+        }
+        mv.visitMethodInsn(INVOKESTATIC, boxedType.getInternalName(), "valueOf", Type.getMethodDescriptor(boxedType, type), false);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.asm;
+
+import com.google.common.collect.MapMaker;
+import org.gradle.api.Transformer;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Holds the class generated for each type, including the fact that no class could be generated for a type.
+ * Both the types and the generated classes are referenced weakly, so that their ClassLoaders can be collected.
+ */
+public class GeneratedClassCache {
+    private static final Class<?> UNSUPPORTED = Void.class;
+    private final Map<Class<?>, Class<?>> generatedClasses = new MapMaker().weakKeys().weakValues().makeMap();
+
+    /**
+     * Returns the class generated for the given type, using the given generator the first time the type is seen.
+     * Returns null when the generator could not generate a class for the type.
+     */
+    @Nullable
+    public synchronized Class<?> get(Class<?> type, Transformer<Class<?>, Class<?>> generator) {
+        Class<?> generatedClass = generatedClasses.get(type);
+        if (generatedClass == null) {
+            generatedClass = generator.transform(type);
+            if (generatedClass == null) {
+                generatedClass = UNSUPPORTED;
+            }
+            generatedClasses.put(type, generatedClass);
+        }
+        return generatedClass == UNSUPPORTED ? null : generatedClass;
+    }
+}
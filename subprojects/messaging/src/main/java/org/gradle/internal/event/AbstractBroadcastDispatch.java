@@ -80,6 +80,13 @@ public abstract class AbstractBroadcastDispatch<T> implements Dispatch<MethodInv
         if (failures == null) {
             return;
         }
+        rethrow(invocation, failures);
+    }
+
+    /**
+     * Rethrows the failures collected while notifying the listeners of the given event.
+     */
+    protected void rethrow(MethodInvocation invocation, List<Throwable> failures) {
         if (failures.size() == 1 && failures.get(0) instanceof RuntimeException) {
             throw (RuntimeException) failures.get(0);
         }
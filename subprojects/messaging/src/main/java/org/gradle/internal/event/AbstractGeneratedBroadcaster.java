@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.event;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The base class for the broadcasters generated by {@link BroadcasterClassGenerator}. A generated broadcaster implements each listener method by calling
+ * the listeners directly when possible, and uses the methods of this class to fall back to dispatching a {@link MethodInvocation} otherwise.
+ */
+public abstract class AbstractGeneratedBroadcaster {
+    private final ListenerBroadcast<?> broadcast;
+    private final Method[] methods;
+
+    protected AbstractGeneratedBroadcaster(ListenerBroadcast<?> broadcast, Method[] methods) {
+        this.broadcast = broadcast;
+        this.methods = methods;
+    }
+
+    /**
+     * Returns the listeners to call directly, or null when the event must be dispatched using {@link #dispatch(int, Object[])}.
+     */
+    protected final Object[] listeners() {
+        return broadcast.getListeners();
+    }
+
+    protected final void dispatch(int method, Object[] arguments) {
+        broadcast.dispatch(new MethodInvocation(methods[method], arguments));
+    }
+
+    protected static List<Throwable> failure(List<Throwable> failures, Throwable failure) {
+        List<Throwable> result = failures == null ? new ArrayList<Throwable>() : failures;
+        result.add(failure instanceof UncheckedException ? failure.getCause() : failure);
+        return result;
+    }
+
+    protected final void rethrow(List<Throwable> failures, int method, Object[] arguments) {
+        broadcast.rethrow(new MethodInvocation(methods[method], arguments), failures);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof AbstractGeneratedBroadcaster && ((AbstractGeneratedBroadcaster) obj).broadcast == broadcast;
+    }
+
+    @Override
+    public int hashCode() {
+        return broadcast.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return broadcast.getType().getSimpleName() + " broadcast";
+    }
+}
@@ -22,6 +22,7 @@ import org.gradle.internal.dispatch.MethodInvocation;
 import org.gradle.internal.dispatch.ReflectionDispatch;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -32,6 +33,8 @@ import java.util.Set;
  * An immutable composite {@link org.gradle.internal.dispatch.Dispatch} implementation. Optimized for a small number of elements, and for infrequent modification.
  */
 public abstract class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T> {
+    private static final Object[] NO_LISTENERS = new Object[0];
+
     private BroadcastDispatch(Class<T> type) {
         super(type);
     }
@@ -77,6 +80,12 @@ public abstract class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T>
 
     public abstract BroadcastDispatch<T> removeAll(Collection<?> listeners);
 
+    /**
+     * Returns the listeners to notify, when all of them are listener objects that can be called directly rather than through a {@link MethodInvocation}. Returns null otherwise.
+     */
+    @Nullable
+    abstract Object[] getListeners();
+
     private static class ActionInvocationHandler implements Dispatch<MethodInvocation> {
         private final String methodName;
         private final Action action;
@@ -141,6 +150,11 @@ public abstract class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T>
             return new CompositeDispatch<T>(type, result);
         }
 
+        @Override
+        Object[] getListeners() {
+            return NO_LISTENERS;
+        }
+
         @Override
         public void dispatch(MethodInvocation message) {
         }
@@ -149,11 +163,17 @@ public abstract class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T>
     private static class SingletonDispatch<T> extends BroadcastDispatch<T> {
         private final Object handler;
         private final Dispatch<MethodInvocation> dispatch;
+        private final Object[] listeners;
 
         SingletonDispatch(Class<T> type, Object handler, Dispatch<MethodInvocation> dispatch) {
             super(type);
             this.handler = handler;
             this.dispatch = dispatch;
+            this.listeners = isListener() ? new Object[]{handler} : null;
+        }
+
+        boolean isListener() {
+            return dispatch instanceof ReflectionDispatch && type.isInstance(handler);
         }
 
         @Override
@@ -225,6 +245,11 @@ public abstract class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T>
             return false;
         }
 
+        @Override
+        Object[] getListeners() {
+            return listeners;
+        }
+
         @Override
         public void dispatch(MethodInvocation message) {
             dispatch(message, dispatch);
@@ -233,10 +258,25 @@ public abstract class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T>
 
     private static class CompositeDispatch<T> extends BroadcastDispatch<T> {
         private final List<SingletonDispatch<T>> dispatchers;
+        private final Object[] listeners;
 
         CompositeDispatch(Class<T> type, List<SingletonDispatch<T>> dispatchers) {
             super(type);
             this.dispatchers = dispatchers;
+            this.listeners = listenersOf(dispatchers);
+        }
+
+        @Nullable
+        private static Object[] listenersOf(List<? extends SingletonDispatch<?>> dispatchers) {
+            Object[] listeners = new Object[dispatchers.size()];
+            for (int i = 0; i < listeners.length; i++) {
+                SingletonDispatch<?> dispatch = dispatchers.get(i);
+                if (!dispatch.isListener()) {
+                    return null;
+                }
+                listeners[i] = dispatch.handler;
+            }
+            return listeners;
         }
 
         @Override
@@ -319,6 +359,11 @@ public abstract class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T>
             return false;
         }
 
+        @Override
+        Object[] getListeners() {
+            return listeners;
+        }
+
         @Override
         public void dispatch(MethodInvocation message) {
             dispatch(message, dispatchers.iterator());
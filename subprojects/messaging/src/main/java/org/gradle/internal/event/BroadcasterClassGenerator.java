@@ -0,0 +1,278 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.event;
+
+import org.gradle.api.Transformer;
+import org.gradle.internal.asm.GeneratedClassCache;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.gradle.internal.asm.AsmGeneratedClassUtils.box;
+import static org.gradle.internal.asm.AsmGeneratedClassUtils.canSee;
+import static org.gradle.internal.asm.AsmGeneratedClassUtils.startClass;
+
+/**
+ * Generates a broadcaster class for a listener interface. Each method of the generated class calls the listeners directly, so that notifying
+ * listeners does not use reflection or allocate when all of the listeners of the broadcast are listener objects.
+ */
+class BroadcasterClassGenerator implements Opcodes {
+    private static final String CLASS_NAME_SUFFIX = "_Broadcaster";
+    private static final String METHODS_FIELD = "__methods__";
+    private static final GeneratedClassCache GENERATED_CLASSES = new GeneratedClassCache();
+
+    private static final Type SUPER_CLASS_TYPE = Type.getType(AbstractGeneratedBroadcaster.class);
+    private static final Type OBJECT_TYPE = Type.getType(Object.class);
+    private static final Type OBJECT_ARRAY_TYPE = Type.getType(Object[].class);
+    private static final Type METHOD_ARRAY_TYPE = Type.getType(Method[].class);
+    private static final Type LIST_TYPE = Type.getType(List.class);
+    private static final Type THROWABLE_TYPE = Type.getType(Throwable.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(ListenerBroadcast.class));
+    private static final String SUPER_CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(ListenerBroadcast.class), METHOD_ARRAY_TYPE);
+    private static final String LISTENERS_DESCRIPTOR = Type.getMethodDescriptor(OBJECT_ARRAY_TYPE);
+    private static final String DISPATCH_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.INT_TYPE, OBJECT_ARRAY_TYPE);
+    private static final String FAILURE_DESCRIPTOR = Type.getMethodDescriptor(LIST_TYPE, LIST_TYPE, THROWABLE_TYPE);
+    private static final String RETHROW_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, LIST_TYPE, Type.INT_TYPE, OBJECT_ARRAY_TYPE);
+
+    /**
+     * Creates a broadcaster for the given broadcast, or returns null when no broadcaster class can be generated for its listener type.
+     */
+    @Nullable
+    static <T> T createBroadcaster(ListenerBroadcast<T> broadcast) {
+        Class<?> broadcasterClass = getBroadcasterClass(broadcast.getType());
+        if (broadcasterClass == null) {
+            return null;
+        }
+        try {
+            return broadcast.getType().cast(broadcasterClass.getConstructor(ListenerBroadcast.class).newInstance(broadcast));
+        } catch (Exception e) {
+            throw new IllegalStateException(String.format("Could not create broadcaster for %s.", broadcast.getType().getSimpleName()), e);
+        }
+    }
+
+    @Nullable
+    private static Class<?> getBroadcasterClass(Class<?> type) {
+        return GENERATED_CLASSES.get(type, new Transformer<Class<?>, Class<?>>() {
+            @Override
+            public Class<?> transform(Class<?> type) {
+                List<Method> methods = listenerMethods(type);
+                return methods == null ? null : generate(type, methods);
+            }
+        });
+    }
+
+    /**
+     * Returns the methods to implement, or null when the type is not an interface that the generated class can implement.
+     * Listener methods that return a value are not supported.
+     */
+    @Nullable
+    private static List<Method> listenerMethods(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (!type.isInterface() || Modifier.isPrivate(type.getModifiers()) || classLoader == null || type.getName().startsWith("java.") || !canSee(classLoader, AbstractGeneratedBroadcaster.class)) {
+            return null;
+        }
+        Map<String, Method> methods = new LinkedHashMap<String, Method>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            if (method.getReturnType() != void.class) {
+                return null;
+            }
+            String signature = method.getName() + Type.getMethodDescriptor(method);
+            if (!methods.containsKey(signature)) {
+                methods.put(signature, method);
+            }
+        }
+        return new ArrayList<Method>(methods.values());
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Class<?> generate(Class<?> type, List<Method> methods) {
+        String className = type.getName() + CLASS_NAME_SUFFIX;
+        Type generatedType = Type.getType("L" + className.replace('.', '/') + ";");
+        Type listenerType = Type.getType(type);
+
+        ClassWriter visitor = startClass(generatedType, SUPER_CLASS_TYPE, listenerType);
+        visitor.visitField(ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC, METHODS_FIELD, METHOD_ARRAY_TYPE.getDescriptor(), null, null).visitEnd();
+
+        MethodVisitor constructor = visitor.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitFieldInsn(GETSTATIC, generatedType.getInternalName(), METHODS_FIELD, METHOD_ARRAY_TYPE.getDescriptor());
+        constructor.visitMethodInsn(INVOKESPECIAL, SUPER_CLASS_TYPE.getInternalName(), "<init>", SUPER_CONSTRUCTOR_DESCRIPTOR, false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        for (int i = 0; i < methods.size(); i++) {
+            addListenerMethod(visitor, generatedType, listenerType, methods.get(i), i);
+        }
+        visitor.visitEnd();
+
+        Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), className, visitor.toByteArray());
+        try {
+            generatedClass.getField(METHODS_FIELD).set(null, methods.toArray(new Method[0]));
+        } catch (Exception e) {
+            throw new IllegalStateException(String.format("Could not initialize broadcaster class for %s.", type.getSimpleName()), e);
+        }
+        return generatedClass;
+    }
+
+    /**
+     * Generates:
+     *
+     * <pre>
+     * public void method(A a, B b) {
+     *     Object[] listeners = listeners();
+     *     if (listeners == null) {
+     *         dispatch(index, new Object[]{a, b});
+     *         return;
+     *     }
+     *     List failures = null;
+     *     for (int i = 0; i &lt; listeners.length; i++) {
+     *         try {
+     *             ((Listener) listeners[i]).method(a, b);
+     *         } catch (Throwable t) {
+     *             failures = failure(failures, t);
+     *         }
+     *     }
+     *     if (failures != null) {
+     *         rethrow(failures, index, new Object[]{a, b});
+     *     }
+     * }
+     * </pre>
+     */
+    private static void addListenerMethod(ClassWriter visitor, Type generatedType, Type listenerType, Method method, int index) {
+        String descriptor = Type.getMethodDescriptor(method);
+        Type[] parameterTypes = Type.getArgumentTypes(method);
+        int listenersVar = 1;
+        for (Type parameterType : parameterTypes) {
+            listenersVar += parameterType.getSize();
+        }
+        int failuresVar = listenersVar + 1;
+        int indexVar = listenersVar + 2;
+        int failureVar = listenersVar + 3;
+
+        MethodVisitor mv = visitor.visitMethod(ACC_PUBLIC, method.getName(), descriptor, null, null);
+        mv.visitCode();
+
+        Label callListeners = new Label();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKEVIRTUAL, SUPER_CLASS_TYPE.getInternalName(), "listeners", LISTENERS_DESCRIPTOR, false);
+        mv.visitVarInsn(ASTORE, listenersVar);
+        mv.visitVarInsn(ALOAD, listenersVar);
+        mv.visitJumpInsn(IFNONNULL, callListeners);
+        mv.visitVarInsn(ALOAD, 0);
+        pushArguments(mv, index, parameterTypes);
+        mv.visitMethodInsn(INVOKEVIRTUAL, SUPER_CLASS_TYPE.getInternalName(), "dispatch", DISPATCH_DESCRIPTOR, false);
+        mv.visitInsn(RETURN);
+
+        Label loop = new Label();
+        Label next = new Label();
+        Label done = new Label();
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label handler = new Label();
+        mv.visitLabel(callListeners);
+        mv.visitInsn(ACONST_NULL);
+        mv.visitVarInsn(ASTORE, failuresVar);
+        mv.visitInsn(ICONST_0);
+        mv.visitVarInsn(ISTORE, indexVar);
+        mv.visitLabel(loop);
+        mv.visitVarInsn(ILOAD, indexVar);
+        mv.visitVarInsn(ALOAD, listenersVar);
+        mv.visitInsn(ARRAYLENGTH);
+        mv.visitJumpInsn(IF_ICMPGE, done);
+        mv.visitLabel(tryStart);
+        mv.visitVarInsn(ALOAD, listenersVar);
+        mv.visitVarInsn(ILOAD, indexVar);
+        mv.visitInsn(AALOAD);
+        mv.visitTypeInsn(CHECKCAST, listenerType.getInternalName());
+        int var = 1;
+        for (Type parameterType : parameterTypes) {
+            mv.visitVarInsn(parameterType.getOpcode(ILOAD), var);
+            var += parameterType.getSize();
+        }
+        mv.visitMethodInsn(INVOKEINTERFACE, listenerType.getInternalName(), method.getName(), descriptor, true);
+        mv.visitLabel(tryEnd);
+        mv.visitJumpInsn(GOTO, next);
+        mv.visitLabel(handler);
+        mv.visitVarInsn(ASTORE, failureVar);
+        mv.visitVarInsn(ALOAD, failuresVar);
+        mv.visitVarInsn(ALOAD, failureVar);
+        mv.visitMethodInsn(INVOKESTATIC, SUPER_CLASS_TYPE.getInternalName(), "failure", FAILURE_DESCRIPTOR, false);
+        mv.visitVarInsn(ASTORE, failuresVar);
+        mv.visitLabel(next);
+        mv.visitIincInsn(indexVar, 1);
+        mv.visitJumpInsn(GOTO, loop);
+        mv.visitTryCatchBlock(tryStart, tryEnd, handler, THROWABLE_TYPE.getInternalName());
+
+        Label end = new Label();
+        mv.visitLabel(done);
+        mv.visitVarInsn(ALOAD, failuresVar);
+        mv.visitJumpInsn(IFNULL, end);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, failuresVar);
+        pushArguments(mv, index, parameterTypes);
+        mv.visitMethodInsn(INVOKEVIRTUAL, SUPER_CLASS_TYPE.getInternalName(), "rethrow", RETHROW_DESCRIPTOR, false);
+        mv.visitLabel(end);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Pushes the method index and an array containing the (boxed) method arguments.
+     */
+    private static void pushArguments(MethodVisitor mv, int index, Type[] parameterTypes) {
+        mv.visitLdcInsn(index);
+        mv.visitLdcInsn(parameterTypes.length);
+        mv.visitTypeInsn(ANEWARRAY, OBJECT_TYPE.getInternalName());
+        int var = 1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Type parameterType = parameterTypes[i];
+            mv.visitInsn(DUP);
+            mv.visitLdcInsn(i);
+            mv.visitVarInsn(parameterType.getOpcode(ILOAD), var);
+            box(mv, parameterType);
+            mv.visitInsn(AASTORE);
+            var += parameterType.getSize();
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.gradle.internal.dispatch.MethodInvocation;
 import org.gradle.internal.dispatch.ProxyDispatchAdapter;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * <p>Manages a set of listeners of type T. Provides an implementation of T which can be used to broadcast to all
@@ -35,7 +36,9 @@ import java.util.Collection;
  * @param <T> The listener type.
  */
 public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
-    private ProxyDispatchAdapter<T> source;
+    private static final boolean BYTECODE_GENERATION_AVAILABLE = isBytecodeGenerationAvailable();
+
+    private T source;
     private BroadcastDispatch<T> broadcast;
     private final Class<T> type;
 
@@ -51,9 +54,29 @@ public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
      */
     public T getSource() {
         if (source == null) {
-            source = new ProxyDispatchAdapter<T>(this, type);
+            source = createSource();
+        }
+        return source;
+    }
+
+    private T createSource() {
+        T broadcaster = BYTECODE_GENERATION_AVAILABLE ? BroadcasterClassGenerator.createBroadcaster(this) : null;
+        if (broadcaster == null) {
+            broadcaster = new ProxyDispatchAdapter<T>(this, type).getSource();
+        }
+        return broadcaster;
+    }
+
+    /**
+     * Broadcaster classes are generated using ASM, which is not on the classpath of every process that uses this class.
+     */
+    private static boolean isBytecodeGenerationAvailable() {
+        try {
+            Class.forName("org.objectweb.asm.ClassWriter", false, ListenerBroadcast.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
         }
-        return source.getSource();
     }
 
     /**
@@ -139,4 +162,15 @@ public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
     public void dispatch(MethodInvocation event) {
         broadcast.dispatch(event);
     }
+
+    /**
+     * Returns the listeners that a generated broadcaster can call directly, or null when events must be dispatched as {@link MethodInvocation}s.
+     */
+    Object[] getListeners() {
+        return broadcast.getListeners();
+    }
+
+    void rethrow(MethodInvocation event, List<Throwable> failures) {
+        broadcast.rethrow(event, failures);
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.asm
+
+import org.gradle.api.Transformer
+import spock.lang.Specification
+
+class GeneratedClassCacheTest extends Specification {
+    def cache = new GeneratedClassCache()
+    def generator = Mock(Transformer)
+
+    def "generates class once for each type"() {
+        when:
+        def first = cache.get(String, generator)
+        def second = cache.get(String, generator)
+
+        then:
+        first == Integer
+        second == Integer
+
+        and:
+        1 * generator.transform(String) >> Integer
+        0 * generator._
+    }
+
+    def "remembers types for which no class could be generated"() {
+        when:
+        def first = cache.get(String, generator)
+        def second = cache.get(String, generator)
+
+        then:
+        first == null
+        second == null
+
+        and:
+        1 * generator.transform(String) >> null
+        0 * generator._
+    }
+}
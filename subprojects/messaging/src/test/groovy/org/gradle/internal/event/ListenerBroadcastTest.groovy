@@ -21,6 +21,8 @@ import org.gradle.internal.dispatch.Dispatch
 import org.gradle.internal.dispatch.MethodInvocation
 import spock.lang.Specification
 
+import java.lang.reflect.Proxy
+
 class ListenerBroadcastTest extends Specification {
     private final ListenerBroadcast<TestListener> broadcast = new ListenerBroadcast<TestListener>(TestListener.class)
 
@@ -33,6 +35,27 @@ class ListenerBroadcastTest extends Specification {
         broadcast.getSource().toString() == 'TestListener broadcast'
     }
 
+    def 'source object calls listeners directly'() {
+        expect:
+        !Proxy.isProxyClass(broadcast.source.getClass())
+        broadcast.source instanceof AbstractGeneratedBroadcaster
+    }
+
+    def 'uses proxy for listener type with methods that return a value'() {
+        given:
+        def broadcast = new ListenerBroadcast<QueryListener>(QueryListener)
+        Dispatch<MethodInvocation> dispatch = Mock()
+        broadcast.add(dispatch)
+
+        when:
+        def result = broadcast.source.query("param")
+
+        then:
+        Proxy.isProxyClass(broadcast.source.getClass())
+        result == null
+        1 * dispatch.dispatch(new MethodInvocation(QueryListener.getMethod("query", String), "param"))
+    }
+
     def 'getType yields the listener class'() {
         expect:
         broadcast.type == TestListener
@@ -262,4 +285,8 @@ class ListenerBroadcastTest extends Specification {
 
         void event3() throws Exception
     }
+
+    public interface QueryListener {
+        String query(String param)
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.gradle.api.Transformer;
+import org.gradle.cache.CacheAccess;
+import org.gradle.cache.FileLock;
+import org.gradle.cache.MultiProcessSafePersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput of concurrent asynchronous puts to a cache backed by a {@link CacheAccessWorker}.
+ *
+ * A small key count measures repeated updates of the same keys, which are coalesced while waiting to be written.
+ * A large key count measures updates of distinct keys. Each write to the backing cache consumes some CPU to stand in for serializing the entry.
+ */
+@Fork(2)
+@Threads(8)
+@Warmup(iterations = 10)
+@State(Scope.Benchmark)
+public class AsyncCacheAccessBenchmark {
+
+    @Param({"64", "1000000"})
+    int keyCount;
+
+    private CacheAccessWorker worker;
+    private Thread workerThread;
+    private AsyncCacheAccessDecoratedCache<Integer, String> cache;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        worker = new CacheAccessWorker("benchmark", new CacheAccess() {
+            @Override
+            public <T> T useCache(Factory<? extends T> action) {
+                return action.create();
+            }
+
+            @Override
+            public void useCache(Runnable action) {
+                action.run();
+            }
+
+            @Override
+            public <T> T withFileLock(Factory<? extends T> action) {
+                return action.create();
+            }
+
+            @Override
+            public void withFileLock(Runnable action) {
+                action.run();
+            }
+        });
+        workerThread = new Thread(worker);
+        workerThread.start();
+        cache = new AsyncCacheAccessDecoratedCache<Integer, String>(worker, new SlowCache());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        worker.stop();
+        workerThread.join();
+    }
+
+    @Benchmark
+    public void putLater(KeySequence keys) {
+        cache.putLater(keys.next(keyCount), "value", NO_OP);
+    }
+
+    @State(Scope.Thread)
+    public static class KeySequence {
+        private int next;
+
+        int next(int keyCount) {
+            int key = next;
+            next = (next + 1) % keyCount;
+            return key;
+        }
+    }
+
+    private static final Runnable NO_OP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private static class SlowCache implements MultiProcessSafePersistentIndexedCache<Integer, String> {
+        @Override
+        public String get(Integer key) {
+            return null;
+        }
+
+        @Override
+        public String get(Integer key, Transformer<? extends String, ? super Integer> producer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void put(Integer key, String value) {
+            Blackhole.consumeCPU(200);
+        }
+
+        @Override
+        public void remove(Integer key) {
+            Blackhole.consumeCPU(200);
+        }
+
+        @Override
+        public void afterLockAcquire(FileLock.State currentCacheState) {
+        }
+
+        @Override
+        public void finishWork() {
+        }
+
+        @Override
+        public void beforeLockRelease(FileLock.State currentCacheState) {
+        }
+    }
+}
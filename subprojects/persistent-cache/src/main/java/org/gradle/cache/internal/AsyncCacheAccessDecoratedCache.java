@@ -23,10 +23,19 @@ import org.gradle.cache.MultiProcessSafePersistentIndexedCache;
 import org.gradle.internal.Factory;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Applies updates to the backing cache asynchronously, using the given {@link AsyncCacheAccess}.
+ *
+ * <p>Updates to a key that is already waiting to be written are coalesced: the queued update is changed to write the most recent value,
+ * and no further work is queued. This way a key that is updated repeatedly is written to the backing cache once per batch.</p>
+ */
 public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsyncPersistentIndexedCache<K, V> {
     private final AsyncCacheAccess asyncCacheAccess;
     private final MultiProcessSafePersistentIndexedCache<K, V> persistentCache;
+    private final ConcurrentMap<K, PendingUpdate> pendingUpdates = new ConcurrentHashMap<K, PendingUpdate>();
 
     public AsyncCacheAccessDecoratedCache(AsyncCacheAccess asyncCacheAccess, MultiProcessSafePersistentIndexedCache<K, V> persistentCache) {
         this.asyncCacheAccess = asyncCacheAccess;
@@ -55,31 +64,36 @@ public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsy
     }
 
     @Override
-    public void putLater(final K key, final V value, final Runnable completion) {
-        asyncCacheAccess.enqueue(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    persistentCache.put(key, value);
-                } finally {
-                    completion.run();
-                }
-            }
-        });
+    public void putLater(K key, V value, Runnable completion) {
+        enqueueUpdate(key, value, false, completion);
     }
 
     @Override
-    public void removeLater(final K key, final Runnable completion) {
-        asyncCacheAccess.enqueue(new Runnable() {
-            @Override
-            public void run() {
+    public void removeLater(K key, Runnable completion) {
+        enqueueUpdate(key, null, true, completion);
+    }
+
+    private void enqueueUpdate(K key, @Nullable V value, boolean remove, Runnable completion) {
+        while (true) {
+            PendingUpdate update = pendingUpdates.get(key);
+            if (update != null) {
+                if (update.replace(value, remove, completion)) {
+                    return;
+                }
+                // Update has already started, and is no longer pending
+                continue;
+            }
+            update = new PendingUpdate(key, value, remove, completion);
+            if (pendingUpdates.putIfAbsent(key, update) == null) {
                 try {
-                    persistentCache.remove(key);
-                } finally {
-                    completion.run();
+                    asyncCacheAccess.enqueue(update);
+                } catch (RuntimeException e) {
+                    pendingUpdates.remove(key, update);
+                    throw e;
                 }
+                return;
             }
-        });
+        }
     }
 
     @Override
@@ -96,4 +110,61 @@ public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsy
     public void beforeLockRelease(FileLock.State currentCacheState) {
         persistentCache.beforeLockRelease(currentCacheState);
     }
+
+    private class PendingUpdate implements Runnable {
+        private final K key;
+        private V value;
+        private boolean remove;
+        private Runnable completion;
+        private boolean started;
+
+        PendingUpdate(K key, @Nullable V value, boolean remove, Runnable completion) {
+            this.key = key;
+            this.value = value;
+            this.remove = remove;
+            this.completion = completion;
+        }
+
+        /**
+         * Replaces the value to write, when this update has not started yet. The completion of the replaced value is run immediately,
+         * as the given completion now covers the write.
+         */
+        boolean replace(@Nullable V value, boolean remove, Runnable completion) {
+            Runnable replaced;
+            synchronized (this) {
+                if (started) {
+                    return false;
+                }
+                this.value = value;
+                this.remove = remove;
+                replaced = this.completion;
+                this.completion = completion;
+            }
+            replaced.run();
+            return true;
+        }
+
+        @Override
+        public void run() {
+            V value;
+            boolean remove;
+            Runnable completion;
+            synchronized (this) {
+                started = true;
+                pendingUpdates.remove(key, this);
+                value = this.value;
+                remove = this.remove;
+                completion = this.completion;
+            }
+            try {
+                if (remove) {
+                    persistentCache.remove(key);
+                } else {
+                    persistentCache.put(key, value);
+                }
+            } finally {
+                completion.run();
+            }
+        }
+    }
 }
@@ -30,6 +30,8 @@ import org.gradle.util.GFileUtils;
 import java.io.File;
 
 public class DefaultPersistentDirectoryStore implements ReferencablePersistentCache {
+    public static final String PROPERTIES_FILE_NAME = "cache.properties";
+
     private final File dir;
     private final CacheBuilder.LockTarget lockTarget;
     private final LockOptions lockOptions;
@@ -46,7 +48,7 @@ public class DefaultPersistentDirectoryStore implements ReferencablePersistentCa
         this.lockOptions = lockOptions;
         this.lockManager = fileLockManager;
         this.executorFactory = executorFactory;
-        this.propertiesFile = new File(dir, "cache.properties");
+        this.propertiesFile = new File(dir, PROPERTIES_FILE_NAME);
         this.gcFile = new File(dir, "gc.properties");
         this.displayName = displayName != null ? (displayName + " (" + dir + ")") : ("cache directory " + dir.getName() + " (" + dir + ")");
     }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal
+
+import org.gradle.cache.AsyncCacheAccess
+import org.gradle.cache.MultiProcessSafePersistentIndexedCache
+import spock.lang.Specification
+
+class AsyncCacheAccessDecoratedCacheTest extends Specification {
+    def queued = []
+    def asyncCacheAccess = Stub(AsyncCacheAccess) {
+        enqueue(_) >> { Runnable action -> queued << action }
+    }
+    def persistentCache = Mock(MultiProcessSafePersistentIndexedCache)
+    def cache = new AsyncCacheAccessDecoratedCache<String, String>(asyncCacheAccess, persistentCache)
+
+    def "writes only most recent value of key that is updated while waiting to be written"() {
+        def completion1 = Mock(Runnable)
+        def completion2 = Mock(Runnable)
+        def completion3 = Mock(Runnable)
+
+        when:
+        cache.putLater("key", "value 1", completion1)
+        cache.putLater("other", "other", completion2)
+        cache.putLater("key", "value 2", completion3)
+
+        then:
+        queued.size() == 2
+        1 * completion1.run()
+        0 * _
+
+        when:
+        queued*.run()
+
+        then:
+        1 * persistentCache.put("key", "value 2")
+
+        then:
+        1 * completion3.run()
+
+        and:
+        1 * persistentCache.put("other", "other")
+        1 * completion2.run()
+        0 * _
+    }
+
+    def "remove replaces pending update of key"() {
+        def completion1 = Mock(Runnable)
+        def completion2 = Mock(Runnable)
+
+        when:
+        cache.putLater("key", "value", completion1)
+        cache.removeLater("key", completion2)
+        queued*.run()
+
+        then:
+        queued.size() == 1
+        1 * completion1.run()
+        1 * persistentCache.remove("key")
+        1 * completion2.run()
+        0 * _
+    }
+
+    def "queues another update of key once update has started"() {
+        def completion1 = Mock(Runnable)
+        def completion2 = Mock(Runnable)
+
+        when:
+        cache.putLater("key", "value 1", completion1)
+        queued[0].run()
+        cache.putLater("key", "value 2", completion2)
+        queued[1].run()
+
+        then:
+        queued.size() == 2
+        1 * persistentCache.put("key", "value 1")
+        1 * completion1.run()
+        1 * persistentCache.put("key", "value 2")
+        1 * completion2.run()
+        0 * _
+    }
+
+    def "runs completion when update fails"() {
+        def completion = Mock(Runnable)
+        def failure = new RuntimeException()
+
+        when:
+        cache.putLater("key", "value", completion)
+        queued[0].run()
+
+        then:
+        1 * persistentCache.put("key", "value") >> { throw failure }
+        1 * completion.run()
+
+        and:
+        def e = thrown(RuntimeException)
+        e == failure
+    }
+}
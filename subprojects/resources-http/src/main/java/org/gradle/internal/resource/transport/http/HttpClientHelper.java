@@ -36,6 +36,7 @@ import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Locale;
@@ -49,6 +50,7 @@ public class HttpClientHelper implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
     private CloseableHttpClient client;
     private final HttpSettings settings;
+    private final HttpConnectionPools connectionPools;
 
     /**
      * Maintains a queue of contexts which are shared between threads when authentication
@@ -60,7 +62,15 @@ public class HttpClientHelper implements Closeable {
     private final ConcurrentLinkedQueue<HttpContext> sharedContext;
 
     public HttpClientHelper(HttpSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * Creates a helper that takes its connections from the given shared pools, when not null, rather than from a pool private to this helper.
+     */
+    public HttpClientHelper(HttpSettings settings, @Nullable HttpConnectionPools connectionPools) {
         this.settings = settings;
+        this.connectionPools = connectionPools;
         if (!settings.getAuthenticationSettings().isEmpty()) {
             sharedContext = new ConcurrentLinkedQueue<HttpContext>();
         } else {
@@ -166,6 +176,10 @@ public class HttpClientHelper implements Closeable {
             HttpClientBuilder builder = HttpClientBuilder.create();
             builder.setRedirectStrategy(new AlwaysRedirectRedirectStrategy());
             new HttpClientConfigurer(settings).configure(builder);
+            if (connectionPools != null) {
+                builder.setConnectionManager(connectionPools.getConnectionManager(settings));
+                builder.setConnectionManagerShared(true);
+            }
             this.client = builder.build();
         }
         return client;
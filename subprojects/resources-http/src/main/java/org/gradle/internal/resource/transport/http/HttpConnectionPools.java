@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides pools of HTTP connections that are shared by all builds run by this process, so that connections and TLS sessions to a repository
+ * are reused by later builds rather than established again.
+ *
+ * <p>A separate pool is used for each combination of TLS and socket settings. Within a pool, connections are kept per route, which includes any proxy,
+ * and connections carrying connection based authentication state, such as NTLM, are only reused for requests with the same state.
+ * The number of connections is limited per route only, so that repositories on different hosts do not throttle each other.</p>
+ *
+ * <p>When a build session completes, pools that were not used by the session are shut down, for example those for a superseded {@link SSLContext},
+ * and expired or long idle connections are closed in the remaining pools.</p>
+ */
+public class HttpConnectionPools implements Stoppable, SessionLifecycleListener {
+    static final int MAX_HTTP_CONNECTIONS = 20;
+    private static final long MAX_IDLE_SECONDS = 30;
+
+    private final Object lock = new Object();
+    private final Map<PoolKey, PoolingHttpClientConnectionManager> pools = Maps.newHashMap();
+    private final Set<PoolKey> usedInSession = Sets.newHashSet();
+
+    /**
+     * Returns the shared connection manager to use for the given settings. The connection manager must not be closed by the caller.
+     */
+    public HttpClientConnectionManager getConnectionManager(HttpSettings settings) {
+        SSLContext sslContext = settings.getSslContextFactory().createSslContext();
+        HostnameVerifier hostnameVerifier = settings.getHostnameVerifier();
+        int socketTimeoutMs = settings.getTimeoutSettings().getSocketTimeoutMs();
+        PoolKey key = new PoolKey(sslContext, hostnameVerifier.getClass(), socketTimeoutMs);
+        synchronized (lock) {
+            PoolingHttpClientConnectionManager pool = pools.get(key);
+            if (pool == null) {
+                pool = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", new SSLConnectionSocketFactory(sslContext, hostnameVerifier))
+                    .build());
+                pool.setDefaultSocketConfig(SocketConfig.custom().setSoTimeout(socketTimeoutMs).build());
+                pool.setMaxTotal(Integer.MAX_VALUE);
+                pool.setDefaultMaxPerRoute(MAX_HTTP_CONNECTIONS);
+                pools.put(key, pool);
+            } else {
+                // Discard connections that the server is likely to have dropped since the previous build
+                pool.closeExpiredConnections();
+                pool.closeIdleConnections(MAX_IDLE_SECONDS, TimeUnit.SECONDS);
+            }
+            usedInSession.add(key);
+            return pool;
+        }
+    }
+
+    @Override
+    public void afterStart() {
+    }
+
+    @Override
+    public void beforeComplete() {
+        synchronized (lock) {
+            Iterator<Map.Entry<PoolKey, PoolingHttpClientConnectionManager>> iterator = pools.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<PoolKey, PoolingHttpClientConnectionManager> entry = iterator.next();
+                PoolingHttpClientConnectionManager pool = entry.getValue();
+                if (usedInSession.contains(entry.getKey())) {
+                    pool.closeExpiredConnections();
+                    pool.closeIdleConnections(MAX_IDLE_SECONDS, TimeUnit.SECONDS);
+                } else {
+                    pool.shutdown();
+                    iterator.remove();
+                }
+            }
+            usedInSession.clear();
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            for (PoolingHttpClientConnectionManager pool : pools.values()) {
+                pool.shutdown();
+            }
+            pools.clear();
+            usedInSession.clear();
+        }
+    }
+
+    private static class PoolKey {
+        private final SSLContext sslContext;
+        private final Class<?> hostnameVerifierType;
+        private final int socketTimeoutMs;
+
+        PoolKey(SSLContext sslContext, Class<?> hostnameVerifierType, int socketTimeoutMs) {
+            this.sslContext = sslContext;
+            this.hostnameVerifierType = hostnameVerifierType;
+            this.socketTimeoutMs = socketTimeoutMs;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PoolKey other = (PoolKey) o;
+            return sslContext == other.sslContext
+                && hostnameVerifierType.equals(other.hostnameVerifierType)
+                && socketTimeoutMs == other.socketTimeoutMs;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(System.identityHashCode(sslContext), hostnameVerifierType, socketTimeoutMs);
+        }
+    }
+}
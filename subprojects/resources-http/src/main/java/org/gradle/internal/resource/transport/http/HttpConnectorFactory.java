@@ -37,9 +37,11 @@ public class HttpConnectorFactory implements ResourceConnectorFactory {
     );
 
     private SslContextFactory sslContextFactory;
+    private final HttpConnectionPools connectionPools;
 
-    public HttpConnectorFactory(SslContextFactory sslContextFactory) {
+    public HttpConnectorFactory(SslContextFactory sslContextFactory, HttpConnectionPools connectionPools) {
         this.sslContextFactory = sslContextFactory;
+        this.connectionPools = connectionPools;
     }
 
     @Override
@@ -54,7 +56,7 @@ public class HttpConnectorFactory implements ResourceConnectorFactory {
 
     @Override
     public ExternalResourceConnector createResourceConnector(ResourceConnectorSpecification connectionDetails) {
-        HttpClientHelper http = new HttpClientHelper(new DefaultHttpSettings(connectionDetails.getAuthentications(), sslContextFactory));
+        HttpClientHelper http = new HttpClientHelper(new DefaultHttpSettings(connectionDetails.getAuthentications(), sslContextFactory), connectionPools);
         HttpResourceAccessor accessor = new HttpResourceAccessor(http);
         HttpResourceLister lister = new HttpResourceLister(accessor);
         HttpResourceUploader uploader = new HttpResourceUploader(http);
@@ -21,6 +21,7 @@ import org.gradle.authentication.http.DigestAuthentication;
 import org.gradle.internal.authentication.AuthenticationSchemeRegistry;
 import org.gradle.internal.authentication.DefaultBasicAuthentication;
 import org.gradle.internal.authentication.DefaultDigestAuthentication;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
@@ -39,8 +40,14 @@ public class HttpResourcesPluginServiceRegistry extends AbstractPluginServiceReg
             return new DefaultSslContextFactory();
         }
 
-        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory) {
-            return new HttpConnectorFactory(sslContextFactory);
+        HttpConnectionPools createHttpConnectionPools(ListenerManager listenerManager) {
+            HttpConnectionPools connectionPools = new HttpConnectionPools();
+            listenerManager.addListener(connectionPools);
+            return connectionPools;
+        }
+
+        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory, HttpConnectionPools connectionPools) {
+            return new HttpConnectorFactory(sslContextFactory, connectionPools);
         }
     }
 
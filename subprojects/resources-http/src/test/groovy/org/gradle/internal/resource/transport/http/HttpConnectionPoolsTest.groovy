@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.conn.ssl.DefaultHostnameVerifier
+import org.apache.http.conn.ssl.NoopHostnameVerifier
+import org.apache.http.ssl.SSLContexts
+import spock.lang.Specification
+
+import javax.net.ssl.HostnameVerifier
+import javax.net.ssl.SSLContext
+
+class HttpConnectionPoolsTest extends Specification {
+    def pools = new HttpConnectionPools()
+    def sslContext = SSLContexts.createDefault()
+
+    def cleanup() {
+        pools.stop()
+    }
+
+    def "reuses connection manager for the same TLS and socket settings"() {
+        expect:
+        pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 1000)).is(pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 1000)))
+    }
+
+    def "uses separate connection managers for different TLS or socket settings"() {
+        def manager = pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 1000))
+
+        expect:
+        !manager.is(pools.getConnectionManager(settings(SSLContexts.createDefault(), new DefaultHostnameVerifier(), 1000)))
+        !manager.is(pools.getConnectionManager(settings(sslContext, NoopHostnameVerifier.INSTANCE, 1000)))
+        !manager.is(pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 2000)))
+    }
+
+    def "limits connections per route only"() {
+        def manager = pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 1000))
+
+        expect:
+        manager.defaultMaxPerRoute == HttpConnectionPools.MAX_HTTP_CONNECTIONS
+        manager.maxTotal == Integer.MAX_VALUE
+    }
+
+    def "keeps connection managers used by the completed session"() {
+        def manager = pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 1000))
+
+        when:
+        pools.beforeComplete()
+
+        then:
+        manager.is(pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 1000)))
+    }
+
+    def "discards connection managers not used by the completed session"() {
+        def manager = pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 1000))
+        pools.beforeComplete()
+
+        when:
+        pools.getConnectionManager(settings(SSLContexts.createDefault(), new DefaultHostnameVerifier(), 1000))
+        pools.beforeComplete()
+
+        then:
+        !manager.is(pools.getConnectionManager(settings(sslContext, new DefaultHostnameVerifier(), 1000)))
+    }
+
+    private HttpSettings settings(SSLContext sslContext, HostnameVerifier hostnameVerifier, int socketTimeout) {
+        return Stub(HttpSettings) {
+            getSslContextFactory() >> Stub(SslContextFactory) {
+                createSslContext() >> sslContext
+            }
+            getHostnameVerifier() >> hostnameVerifier
+            getTimeoutSettings() >> Stub(HttpTimeoutSettings) {
+                getSocketTimeoutMs() >> socketTimeout
+            }
+        }
+    }
+}
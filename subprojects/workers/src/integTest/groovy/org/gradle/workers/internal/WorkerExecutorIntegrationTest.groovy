@@ -343,6 +343,50 @@ class WorkerExecutorIntegrationTest extends AbstractWorkerExecutorIntegrationTes
         succeeds "verifyNotIsolated"
     }
 
+    def "reuses classloader and its static state for work items with the same classpath in IsolationMode.CLASSLOADER"() {
+        withRunnableClassInBuildSrc()
+
+        buildFile << """
+            task runInWorker1(type: WorkerTask) {
+                isolationMode = IsolationMode.CLASSLOADER
+            }
+
+            task runInWorker2(type: WorkerTask) {
+                isolationMode = IsolationMode.CLASSLOADER
+                dependsOn runInWorker1
+            }
+        """
+
+        when:
+        succeeds "runInWorker2"
+
+        then:
+        // The runnable writes an id held in a static field
+        assertSameDaemonWasUsed("runInWorker1", "runInWorker2")
+    }
+
+    def "does not share static state between work items in IsolationMode.CLASSLOADER when classloader reuse is disabled"() {
+        withRunnableClassInBuildSrc()
+
+        buildFile << """
+            task runInWorker1(type: WorkerTask) {
+                isolationMode = IsolationMode.CLASSLOADER
+            }
+
+            task runInWorker2(type: WorkerTask) {
+                isolationMode = IsolationMode.CLASSLOADER
+                dependsOn runInWorker1
+            }
+        """
+
+        when:
+        executer.withArgument("-D${IsolatedClassloaderWorkerFactory.REUSE_CLASSLOADERS_PROPERTY}=false")
+        succeeds "runInWorker2"
+
+        then:
+        assertDifferentDaemonsWereUsed("runInWorker1", "runInWorker2")
+    }
+
     void withParameterClassReferencingClassInAnotherPackage() {
         file("buildSrc/src/main/java/org/gradle/another/Bar.java").text = """
             package org.gradle.another;
@@ -22,6 +22,7 @@ import org.gradle.process.JavaForkOptions;
 import org.gradle.process.internal.JavaForkOptionsInternal;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Set;
 
 import static com.google.common.base.Strings.nullToEmpty;
@@ -63,6 +64,27 @@ public class DaemonForkOptions {
                 && keepAliveMode == other.getKeepAliveMode();
     }
 
+    /**
+     * Returns a value that is equal for fork options that start identical worker daemons.
+     */
+    public Object getFingerprint() {
+        return Arrays.asList(
+            getNormalized(forkOptions.getExecutable()),
+            getNormalized(forkOptions.getMinHeapSize()),
+            getNormalized(forkOptions.getMaxHeapSize()),
+            forkOptions.getJvmArgs(),
+            forkOptions.getSystemProperties(),
+            forkOptions.getEnvironment(),
+            forkOptions.getBootstrapClasspath().getFiles(),
+            forkOptions.getWorkingDir(),
+            getNormalized(forkOptions.getDefaultCharacterEncoding()),
+            forkOptions.getDebug(),
+            forkOptions.getEnableAssertions(),
+            getNormalizedClasspath(classpath),
+            getNormalizedSharedPackages(sharedPackages),
+            keepAliveMode);
+    }
+
     // one way to merge fork options, good for current use case
     public DaemonForkOptions mergeWith(DaemonForkOptions other) {
         if (keepAliveMode != other.getKeepAliveMode()) {
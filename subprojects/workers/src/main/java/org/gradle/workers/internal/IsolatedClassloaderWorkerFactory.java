@@ -16,6 +16,12 @@
 
 package org.gradle.workers.internal;
 
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableSet;
 import org.gradle.api.internal.AsmBackedClassGenerator;
 import org.gradle.api.internal.DefaultInstantiatorFactory;
 import org.gradle.api.internal.classloading.GroovySystemLoader;
@@ -26,12 +32,17 @@ import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.CachingClassLoader;
 import org.gradle.internal.classloader.ClassLoaderFactory;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.classloader.ClasspathUtil;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classloader.MultiParentClassLoader;
 import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.io.ClassLoaderObjectInputStream;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -47,25 +58,54 @@ import org.gradle.workers.IsolationMode;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
-public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
+/**
+ * Executes work items in an isolated ClassLoader built from the action classpath.
+ *
+ * The ClassLoaders are reused by later work items with the same classpath, shared packages and Gradle ClassLoader,
+ * so that the classes loaded and compiled by earlier items are not loaded again. This means that static state of the classes loaded from the
+ * action classpath is visible to later work items. A bounded number of ClassLoaders is retained
+ * for the build session. Reuse can be disabled with `-Dorg.gradle.workers.internal.reuse-classloaders=false`, for actions that
+ * leak static state from one work item to the next.
+ */
+public class IsolatedClassloaderWorkerFactory implements WorkerFactory, Stoppable {
+    public static final String REUSE_CLASSLOADERS_PROPERTY = "org.gradle.workers.internal.reuse-classloaders";
+    private static final int MAX_CACHED_CLASSLOADERS = 16;
 
     private final ClassLoaderFactory classLoaderFactory;
+    private final ClasspathHasher classpathHasher;
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
     private final GroovySystemLoaderFactory groovySystemLoaderFactory = new GroovySystemLoaderFactory();
+    private final Cache<WorkerClassLoaderKey, WorkerClassLoader> workerClassLoaders = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_CLASSLOADERS)
+        .removalListener(new RemovalListener<WorkerClassLoaderKey, WorkerClassLoader>() {
+            @Override
+            public void onRemoval(RemovalNotification<WorkerClassLoaderKey, WorkerClassLoader> notification) {
+                notification.getValue().evict();
+            }
+        })
+        .build();
 
-    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
+    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
         this.classLoaderFactory = classLoaderFactory;
+        this.classpathHasher = classpathHasher;
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
     }
 
+    @Override
+    public void stop() {
+        workerClassLoaders.invalidateAll();
+    }
+
     @Override
     public Worker getWorker(final DaemonForkOptions forkOptions) {
         return new Worker() {
@@ -102,28 +142,56 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
     }
 
     private DefaultWorkResult executeInWorkerClassLoader(ActionExecutionSpec spec, DaemonForkOptions forkOptions) {
-        ClassLoader actionClasspathLoader = createActionClasspathLoader(forkOptions);
-        GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
-
-        ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader, forkOptions.getSharedPackages(), spec.getClass());
+        WorkerClassLoader workerClassLoader = acquireWorkerClassLoader(forkOptions.getClasspath(), forkOptions.getSharedPackages(), spec.getClass());
 
         ClassLoader previousContextLoader = Thread.currentThread().getContextClassLoader();
         try {
-            Thread.currentThread().setContextClassLoader(workerClassLoader);
-            Callable<?> worker = transferWorkerIntoWorkerClassloader(spec, workerClassLoader);
+            Thread.currentThread().setContextClassLoader(workerClassLoader.getClassLoader());
+            Callable<?> worker = transferWorkerIntoWorkerClassloader(spec, workerClassLoader.getClassLoader());
             Object result = worker.call();
             return transferResultFromWorkerClassLoader(result);
         } catch (Exception e) {
             throw UncheckedException.throwAsUncheckedException(e);
         } finally {
-            // Eventually shutdown any leaky groovy runtime loaded from action classpath loader
-            actionClasspathGroovy.shutdown();
+            workerClassLoader.release();
             Thread.currentThread().setContextClassLoader(previousContextLoader);
         }
     }
 
-    private ClassLoader createActionClasspathLoader(DaemonForkOptions forkOptions) {
-        return classLoaderFactory.createIsolatedClassLoader(new DefaultClassPath(forkOptions.getClasspath()));
+    /**
+     * Returns a worker ClassLoader for the given classpath, acquired for use by the caller. The caller must release it when done.
+     */
+    WorkerClassLoader acquireWorkerClassLoader(Iterable<File> classpath, Iterable<String> sharedPackages, Class<?> actionClass) {
+        ClassPath classPath = new DefaultClassPath(classpath);
+        if ("false".equals(System.getProperty(REUSE_CLASSLOADERS_PROPERTY))) {
+            WorkerClassLoader workerClassLoader = createWorkerClassLoader(classPath, sharedPackages, actionClass);
+            workerClassLoader.acquire();
+            workerClassLoader.evict();
+            return workerClassLoader;
+        }
+
+        WorkerClassLoaderKey key = new WorkerClassLoaderKey(classpathHasher.hash(classPath), ImmutableSet.copyOf(sharedPackages), actionClass.getClassLoader());
+        while (true) {
+            WorkerClassLoader workerClassLoader;
+            synchronized (workerClassLoaders) {
+                workerClassLoader = workerClassLoaders.getIfPresent(key);
+                if (workerClassLoader == null) {
+                    workerClassLoader = createWorkerClassLoader(classPath, sharedPackages, actionClass);
+                    workerClassLoaders.put(key, workerClassLoader);
+                }
+            }
+            // May have been evicted by another thread in the meantime
+            if (workerClassLoader.acquire()) {
+                return workerClassLoader;
+            }
+        }
+    }
+
+    private WorkerClassLoader createWorkerClassLoader(ClassPath classPath, Iterable<String> sharedPackages, Class<?> actionClass) {
+        ClassLoader actionClasspathLoader = classLoaderFactory.createIsolatedClassLoader(classPath);
+        GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
+        ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader, sharedPackages, actionClass);
+        return new WorkerClassLoader(actionClasspathLoader, actionClasspathGroovy, workerClassLoader);
     }
 
     private ClassLoader createWorkerClassLoader(ClassLoader actionClasspathLoader, Iterable<String> sharedPackages, Class<?> actionClass) {
@@ -168,10 +236,97 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
         return (DefaultWorkResult) ois.readObject();
     }
 
+    private static class WorkerClassLoaderKey {
+        private final HashCode classpathHash;
+        private final Set<String> sharedPackages;
+        private final ClassLoader actionClassLoader;
+
+        WorkerClassLoaderKey(HashCode classpathHash, Set<String> sharedPackages, ClassLoader actionClassLoader) {
+            this.classpathHash = classpathHash;
+            this.sharedPackages = sharedPackages;
+            this.actionClassLoader = actionClassLoader;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            WorkerClassLoaderKey other = (WorkerClassLoaderKey) o;
+            return classpathHash.equals(other.classpathHash)
+                && sharedPackages.equals(other.sharedPackages)
+                && actionClassLoader == other.actionClassLoader;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(classpathHash, sharedPackages, System.identityHashCode(actionClassLoader));
+        }
+    }
+
+    /**
+     * A worker ClassLoader and the resources to release once it is no longer cached and no work item is using it.
+     */
+    static class WorkerClassLoader {
+        private final ClassLoader actionClasspathLoader;
+        private final GroovySystemLoader actionClasspathGroovy;
+        private final ClassLoader classLoader;
+        private int users;
+        private boolean evicted;
+        private boolean closed;
+
+        WorkerClassLoader(ClassLoader actionClasspathLoader, GroovySystemLoader actionClasspathGroovy, ClassLoader classLoader) {
+            this.actionClasspathLoader = actionClasspathLoader;
+            this.actionClasspathGroovy = actionClasspathGroovy;
+            this.classLoader = classLoader;
+        }
+
+        ClassLoader getClassLoader() {
+            return classLoader;
+        }
+
+        /**
+         * Registers a user of this ClassLoader. Returns false when the ClassLoader has already been closed, in which case another one must be used.
+         */
+        synchronized boolean acquire() {
+            if (closed) {
+                return false;
+            }
+            users++;
+            return true;
+        }
+
+        synchronized void release() {
+            users--;
+            maybeClose();
+        }
+
+        synchronized void evict() {
+            evicted = true;
+            maybeClose();
+        }
+
+        private void maybeClose() {
+            if (evicted && users == 0 && !closed) {
+                closed = true;
+                // Eventually shutdown any leaky groovy runtime loaded from action classpath loader
+                actionClasspathGroovy.shutdown();
+                ClassLoaderUtils.tryClose(classLoader);
+                ClassLoaderUtils.tryClose(actionClasspathLoader);
+            }
+        }
+    }
+
     /**
      * This is serialized across into the worker ClassLoader and then executed.
      */
     private static class WorkerCallable implements Callable<Object>, Serializable {
+        // Each worker ClassLoader loads its own copy of this class, so these services are reused by work items that share a worker ClassLoader
+        private static DefaultInstantiatorFactory instantiatorFactory;
+
         private final ActionExecutionSpec spec;
 
         private WorkerCallable(ActionExecutionSpec spec) {
@@ -180,10 +335,15 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
 
         @Override
         public Object call() throws Exception {
-            // TODO - reuse these services, either by making the global instances visible or by reusing the worker ClassLoaders and retaining a reference to them
-            DefaultInstantiatorFactory instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
-            WorkerProtocol<ActionExecutionSpec> worker = new DefaultWorkerServer(instantiatorFactory.inject());
+            WorkerProtocol<ActionExecutionSpec> worker = new DefaultWorkerServer(getInstantiatorFactory().inject());
             return worker.execute(spec);
         }
+
+        private static synchronized DefaultInstantiatorFactory getInstantiatorFactory() {
+            if (instantiatorFactory == null) {
+                instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
+            }
+            return instantiatorFactory;
+        }
     }
 }
@@ -16,6 +16,8 @@
 
 package org.gradle.workers.internal;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.gradle.api.Transformer;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
@@ -23,6 +25,8 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.initialization.SessionLifecycleListener;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
@@ -35,26 +39,45 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Keeps track of the worker daemons and hands out idle ones to be reused.
+ *
+ * When `-Dorg.gradle.workers.internal.warm-daemons=«count»` is set, an idle worker daemon is kept ready for each of the «count» most used fork options.
+ * Whenever no idle worker daemon remains for one of these, another is started in the background, so that the next request does not wait for a daemon to start.
+ * A warm daemon is kept until it is reserved, even across build sessions, so session scoped worker daemons such as the compiler daemons are also ready at the first compile of the next build.
+ * Once reserved, a warm daemon is stopped like any other worker daemon with the same {@link KeepAliveMode}.
+ */
 public class WorkerDaemonClientsManager implements Stoppable {
+    public static final String WARM_DAEMONS_PROPERTY = "org.gradle.workers.internal.warm-daemons";
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    private final Set<WorkerDaemonClient> warmClients = Sets.newIdentityHashSet();
+    private final Map<Object, DaemonUsage> usages = Maps.newHashMap();
 
     private final WorkerDaemonStarter workerDaemonStarter;
     private final ListenerManager listenerManager;
     private final LoggingManagerInternal loggingManager;
+    private final ExecutorFactory executorFactory;
     private final SessionLifecycleListener stopSessionScopeWorkers;
     private final OutputEventListener logLevelChangeEventListener;
     private LogLevel currentLogLevel;
+    private ManagedExecutor warmUpExecutor;
+    private boolean stopped;
+    private int hits;
+    private int misses;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, ExecutorFactory executorFactory) {
         this.workerDaemonStarter = workerDaemonStarter;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
+        this.executorFactory = executorFactory;
         this.stopSessionScopeWorkers = new StopSessionScopedWorkers();
         listenerManager.addListener(stopSessionScopeWorkers);
         this.logLevelChangeEventListener = new LogLevelChangeEventListener();
@@ -64,7 +87,14 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     // TODO - should supply and check for the same parameters as passed to reserveNewClient()
     public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+        synchronized (lock) {
+            WorkerDaemonClient client = reserveIdleClient(forkOptions, idleClients);
+            if (client != null) {
+                hits++;
+                used(forkOptions, null);
+            }
+            return client;
+        }
     }
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
@@ -74,6 +104,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
                 WorkerDaemonClient candidate = it.next();
                 if (candidate.isCompatibleWith(forkOptions)) {
                     it.remove();
+                    warmClients.remove(candidate);
                     if (candidate.getLogLevel() != currentLogLevel) {
                         // TODO: Send a message to workers to change their log level rather than stopping
                         LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
@@ -92,10 +123,59 @@ public class WorkerDaemonClientsManager implements Stoppable {
         WorkerDaemonClient client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, forkOptions);
         synchronized (lock) {
             allClients.add(client);
+            misses++;
+            used(forkOptions, workerProtocolImplementationClass);
         }
         return client;
     }
 
+    /**
+     * Records a use of the given fork options, and starts a warm worker daemon for them when they are among the most used and none is idle.
+     */
+    private void used(DaemonForkOptions forkOptions, Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass) {
+        int warmDaemons = Integer.getInteger(WARM_DAEMONS_PROPERTY, 0);
+        if (warmDaemons <= 0 || stopped) {
+            return;
+        }
+        Object fingerprint = forkOptions.getFingerprint();
+        DaemonUsage usage = usages.get(fingerprint);
+        if (usage == null) {
+            if (workerProtocolImplementationClass == null) {
+                return;
+            }
+            usage = new DaemonUsage(forkOptions, workerProtocolImplementationClass);
+            usages.put(fingerprint, usage);
+        }
+        usage.uses++;
+        if (usage.starting || !isMostUsed(usage, warmDaemons) || hasIdleClient(forkOptions)) {
+            return;
+        }
+        usage.starting = true;
+        if (warmUpExecutor == null) {
+            warmUpExecutor = executorFactory.create("Worker daemon warm up");
+        }
+        warmUpExecutor.execute(new StartWarmDaemon(usage));
+    }
+
+    private boolean isMostUsed(DaemonUsage usage, int count) {
+        int moreUsed = 0;
+        for (DaemonUsage other : usages.values()) {
+            if (other.uses > usage.uses && ++moreUsed >= count) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasIdleClient(DaemonForkOptions forkOptions) {
+        for (WorkerDaemonClient client : idleClients) {
+            if (client.isCompatibleWith(forkOptions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             idleClients.add(client);
@@ -104,10 +184,20 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     @Override
     public void stop() {
+        ManagedExecutor executor;
+        synchronized (lock) {
+            stopped = true;
+            executor = warmUpExecutor;
+        }
+        if (executor != null) {
+            // Wait for any daemon being warmed up, outside the lock as it is needed to register the daemon
+            executor.stop();
+        }
         synchronized (lock) {
             stopWorkers(allClients);
             allClients.clear();
             idleClients.clear();
+            warmClients.clear();
             listenerManager.removeListener(stopSessionScopeWorkers);
             loggingManager.removeOutputEventListener(logLevelChangeEventListener);
         }
@@ -140,6 +230,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
             LOGGER.info("Stopped {} worker daemon(s).", clientsToStop.size());
             idleClients.removeAll(clientsToStop);
             allClients.removeAll(clientsToStop);
+            warmClients.removeAll(clientsToStop);
         }
     }
 
@@ -153,10 +244,58 @@ public class WorkerDaemonClientsManager implements Stoppable {
                 List<WorkerDaemonClient> sessionScopedClients = CollectionUtils.filter(allClients, new Spec<WorkerDaemonClient>() {
                     @Override
                     public boolean isSatisfiedBy(WorkerDaemonClient client) {
-                        return client.getKeepAliveMode() == KeepAliveMode.SESSION;
+                        return client.getKeepAliveMode() == KeepAliveMode.SESSION && !warmClients.contains(client);
                     }
                 });
                 stopWorkers(sessionScopedClients);
+                if (hits + misses > 0) {
+                    LOGGER.info("Worker daemons reused: {}, started on demand: {}.", hits, misses);
+                }
+                hits = 0;
+                misses = 0;
+            }
+        }
+    }
+
+    private static class DaemonUsage {
+        private final DaemonForkOptions forkOptions;
+        private final Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass;
+        private int uses;
+        private boolean starting;
+
+        DaemonUsage(DaemonForkOptions forkOptions, Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass) {
+            this.forkOptions = forkOptions;
+            this.workerProtocolImplementationClass = workerProtocolImplementationClass;
+        }
+    }
+
+    private class StartWarmDaemon implements Runnable {
+        private final DaemonUsage usage;
+
+        StartWarmDaemon(DaemonUsage usage) {
+            this.usage = usage;
+        }
+
+        @Override
+        public void run() {
+            WorkerDaemonClient client = null;
+            try {
+                client = workerDaemonStarter.startDaemon(usage.workerProtocolImplementationClass, usage.forkOptions);
+            } catch (Exception e) {
+                LOGGER.debug("Could not start warm worker daemon.", e);
+            }
+            synchronized (lock) {
+                usage.starting = false;
+                if (client == null) {
+                    return;
+                }
+                if (stopped) {
+                    client.stop();
+                    return;
+                }
+                allClients.add(client);
+                idleClients.add(client);
+                warmClients.add(client);
             }
         }
     }
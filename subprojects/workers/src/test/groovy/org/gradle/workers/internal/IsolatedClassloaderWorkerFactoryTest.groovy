@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal
+
+import org.gradle.api.internal.classloading.GroovySystemLoader
+import org.gradle.internal.classloader.ClassLoaderFactory
+import org.gradle.internal.classloader.ClasspathHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.work.WorkerLeaseRegistry
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class IsolatedClassloaderWorkerFactoryTest extends Specification {
+    @Rule SetSystemProperties sysProp = new SetSystemProperties()
+
+    def classLoaderFactory = Mock(ClassLoaderFactory)
+    def classpathHasher = Stub(ClasspathHasher)
+    def factory = new IsolatedClassloaderWorkerFactory(classLoaderFactory, classpathHasher, Stub(WorkerLeaseRegistry), Stub(BuildOperationExecutor))
+    def classpath = [new File("a.jar")]
+    def sharedPackages = ["org.test"]
+
+    def setup() {
+        classpathHasher.hash(_) >> HashCode.fromInt(123)
+        classLoaderFactory.createFilteringClassLoader(_, _) >> { ClassLoader parent, spec -> parent }
+    }
+
+    def cleanup() {
+        factory.stop()
+    }
+
+    def "reuses worker ClassLoader for work items with the same classpath"() {
+        when:
+        def first = factory.acquireWorkerClassLoader(classpath, sharedPackages, getClass())
+        first.release()
+        def second = factory.acquireWorkerClassLoader(classpath, sharedPackages, getClass())
+        second.release()
+
+        then:
+        1 * classLoaderFactory.createIsolatedClassLoader(_) >> new URLClassLoader(new URL[0])
+        second.is(first)
+    }
+
+    def "uses separate worker ClassLoaders for different shared packages"() {
+        when:
+        def first = factory.acquireWorkerClassLoader(classpath, sharedPackages, getClass())
+        def second = factory.acquireWorkerClassLoader(classpath, ["org.other"], getClass())
+
+        then:
+        2 * classLoaderFactory.createIsolatedClassLoader(_) >> { new URLClassLoader(new URL[0]) }
+        !second.is(first)
+    }
+
+    def "does not reuse worker ClassLoaders when reuse is disabled"() {
+        System.setProperty(IsolatedClassloaderWorkerFactory.REUSE_CLASSLOADERS_PROPERTY, "false")
+
+        when:
+        def first = factory.acquireWorkerClassLoader(classpath, sharedPackages, getClass())
+        first.release()
+        def second = factory.acquireWorkerClassLoader(classpath, sharedPackages, getClass())
+
+        then:
+        2 * classLoaderFactory.createIsolatedClassLoader(_) >> { new URLClassLoader(new URL[0]) }
+        !second.is(first)
+
+        and:
+        !first.acquire()
+    }
+
+    def "creates another worker ClassLoader when the cached one has been closed"() {
+        given:
+        classLoaderFactory.createIsolatedClassLoader(_) >> { new URLClassLoader(new URL[0]) }
+        def first = factory.acquireWorkerClassLoader(classpath, sharedPackages, getClass())
+        first.release()
+
+        when:
+        factory.stop()
+        def second = factory.acquireWorkerClassLoader(classpath, sharedPackages, getClass())
+
+        then:
+        !first.acquire()
+        !second.is(first)
+    }
+
+    def "closes worker ClassLoader once when it has been evicted and all users have released it"() {
+        def groovyLoader = Mock(GroovySystemLoader)
+        def workerClassLoader = new IsolatedClassloaderWorkerFactory.WorkerClassLoader(new URLClassLoader(new URL[0]), groovyLoader, new URLClassLoader(new URL[0]))
+
+        when:
+        workerClassLoader.acquire()
+        workerClassLoader.acquire()
+        workerClassLoader.evict()
+        workerClassLoader.release()
+
+        then:
+        0 * groovyLoader.shutdown()
+
+        when:
+        workerClassLoader.release()
+
+        then:
+        1 * groovyLoader.shutdown()
+
+        when:
+        workerClassLoader.evict()
+
+        then:
+        0 * groovyLoader.shutdown()
+        !workerClassLoader.acquire()
+    }
+
+    def "does not close worker ClassLoader that has not been evicted"() {
+        def groovyLoader = Mock(GroovySystemLoader)
+        def workerClassLoader = new IsolatedClassloaderWorkerFactory.WorkerClassLoader(new URLClassLoader(new URL[0]), groovyLoader, new URLClassLoader(new URL[0]))
+
+        when:
+        workerClassLoader.acquire()
+        workerClassLoader.release()
+
+        then:
+        0 * groovyLoader.shutdown()
+        workerClassLoader.acquire()
+    }
+}
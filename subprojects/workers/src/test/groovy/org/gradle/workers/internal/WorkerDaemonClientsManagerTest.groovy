@@ -19,12 +19,16 @@ package org.gradle.workers.internal
 import org.gradle.api.Transformer
 import org.gradle.api.logging.LogLevel
 import org.gradle.initialization.SessionLifecycleListener
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.event.DefaultListenerManager
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.logging.events.LogLevelChangeEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.util.ConcurrentSpecification
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Subject
 
 class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
@@ -36,8 +40,10 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def serverImpl = Stub(WorkerProtocol)
     def listenerManager = Stub(ListenerManager)
     def loggingManager = Stub(LoggingManagerInternal)
+    def executorFactory = Stub(ExecutorFactory)
+    @Rule SetSystemProperties sysProp = new SetSystemProperties()
 
-    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -91,7 +97,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "can stop session-scoped clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -110,7 +116,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "Stopping session-scoped clients does not stop other clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -158,7 +164,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         loggingManager.getLevel() >> LogLevel.INFO
 
         when:
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
 
         then:
         listener != null
@@ -230,4 +236,128 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
         1 * client3.stop()
     }
+
+    def "starts warm client when idle clients for most used fork options are consumed"() {
+        System.setProperty(WorkerDaemonClientsManager.WARM_DAEMONS_PROPERTY, "1")
+        def executor = Stub(ManagedExecutor) {
+            execute(_) >> { Runnable runnable -> runnable.run() }
+        }
+        executorFactory.create(_) >> executor
+        options.getFingerprint() >> "options"
+        options.getKeepAliveMode() >> KeepAliveMode.DAEMON
+        def client1 = Stub(WorkerDaemonClient)
+        def client2 = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        def client3 = Stub(WorkerDaemonClient)
+        starter.startDaemon(serverImpl.class, options) >>> [client1, client2, client3]
+
+        expect:
+        manager.reserveNewClient(serverImpl.class, options) == client1
+        manager.reserveIdleClient(options) == client2
+    }
+
+    def "does not start warm clients by default"() {
+        def client = Stub(WorkerDaemonClient)
+        starter.startDaemon(serverImpl.class, options) >> client
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+
+        then:
+        manager.reserveIdleClient(options) == null
+    }
+
+    def "keeps warm client for session scoped fork options until it is used in a later session"() {
+        System.setProperty(WorkerDaemonClientsManager.WARM_DAEMONS_PROPERTY, "1")
+        listenerManager = new DefaultListenerManager()
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
+        executorFactory.create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable runnable -> runnable.run() }
+        }
+        options.getFingerprint() >> "options"
+        options.getKeepAliveMode() >> KeepAliveMode.SESSION
+        def client = Mock(WorkerDaemonClient) {
+            getKeepAliveMode() >> KeepAliveMode.SESSION
+        }
+        def warmClient = Mock(WorkerDaemonClient) {
+            getKeepAliveMode() >> KeepAliveMode.SESSION
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        def nextWarmClient = Mock(WorkerDaemonClient) {
+            getKeepAliveMode() >> KeepAliveMode.SESSION
+        }
+        starter.startDaemon(serverImpl.class, options) >>> [client, warmClient, nextWarmClient]
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+
+        then:
+        1 * client.stop()
+        0 * warmClient.stop()
+
+        when:
+        def reserved = manager.reserveIdleClient(options)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+
+        then:
+        reserved == warmClient
+        1 * warmClient.stop()
+        0 * nextWarmClient.stop()
+    }
+
+    def "keeps warm client that finishes starting after the session has completed"() {
+        System.setProperty(WorkerDaemonClientsManager.WARM_DAEMONS_PROPERTY, "1")
+        listenerManager = new DefaultListenerManager()
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, executorFactory)
+        def warmUps = []
+        executorFactory.create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable runnable -> warmUps << runnable }
+        }
+        options.getFingerprint() >> "options"
+        options.getKeepAliveMode() >> KeepAliveMode.DAEMON
+        def client = Stub(WorkerDaemonClient) {
+            getKeepAliveMode() >> KeepAliveMode.DAEMON
+        }
+        def warmClient = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        starter.startDaemon(serverImpl.class, options) >>> [client, warmClient]
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+        warmUps*.run()
+
+        then:
+        warmUps.size() == 1
+        0 * warmClient.stop()
+        manager.reserveIdleClient(options) == warmClient
+    }
+
+    def "discards warm client that finishes starting after the manager has stopped"() {
+        System.setProperty(WorkerDaemonClientsManager.WARM_DAEMONS_PROPERTY, "1")
+        def warmUps = []
+        executorFactory.create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable runnable -> warmUps << runnable }
+        }
+        options.getFingerprint() >> "options"
+        options.getKeepAliveMode() >> KeepAliveMode.DAEMON
+        def warmClient = Mock(WorkerDaemonClient)
+        starter.startDaemon(serverImpl.class, options) >>> [Stub(WorkerDaemonClient), warmClient]
+
+        when:
+        manager.reserveNewClient(serverImpl.class, options)
+        manager.stop()
+        warmUps*.run()
+
+        then:
+        warmUps.size() == 1
+        1 * warmClient.stop()
+        manager.reserveIdleClient(options) == null
+    }
 }